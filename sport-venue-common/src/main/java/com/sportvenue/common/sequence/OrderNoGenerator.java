@@ -0,0 +1,96 @@
+package com.sportvenue.common.sequence;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 号段式单号生成器：单号 = 前缀 + yyyyMMdd + 定宽序号。
+ * 每个前缀每天从 {@link SegmentAllocator} 租一段序号，段内用 AtomicLong 无锁发号，
+ * 仅在号段用尽或跨天时才加锁续租。多实例各自持有不同号段，序号唯一但不保证全局递增
+ */
+public class OrderNoGenerator {
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final SegmentAllocator allocator;
+    private final int step;
+    private final ConcurrentHashMap<String, AtomicReference<Segment>> segments = new ConcurrentHashMap<>();
+
+    public OrderNoGenerator(SegmentAllocator allocator, int step) {
+        if (step < 1) {
+            throw new IllegalArgumentException("step must be positive");
+        }
+        this.allocator = allocator;
+        this.step = step;
+    }
+
+    /** 生成当天单号，如 next("SO", 6) -> SO20240101000001 */
+    public String next(String prefix, int width) {
+        String day = LocalDate.now().format(DAY);
+        return format(prefix + day, nextSeq(prefix, day), width);
+    }
+
+    /** 一次取 count 个连续单号，用于批量建单 */
+    public List<String> next(String prefix, int width, int count) {
+        String day = LocalDate.now().format(DAY);
+        long first = nextSeq(prefix, day, count);
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(format(prefix + day, first + i, width));
+        }
+        return result;
+    }
+
+    private long nextSeq(String prefix, String day) {
+        return nextSeq(prefix, day, 1);
+    }
+
+    /** 取 count 个连续序号，返回首个；当前号段剩余不足时整段续租，剩余部分作废 */
+    private long nextSeq(String prefix, String day, int count) {
+        AtomicReference<Segment> ref = segments.computeIfAbsent(prefix, k -> new AtomicReference<>(Segment.EMPTY));
+        while (true) {
+            Segment seg = ref.get();
+            if (seg.day.equals(day)) {
+                long last = seg.cursor.addAndGet(count);
+                if (last <= seg.max) {
+                    return last - count + 1;
+                }
+            }
+            synchronized (ref) {
+                if (ref.get() == seg) {
+                    int size = Math.max(step, count);
+                    long max = allocator.allocate(prefix + day, size);
+                    ref.set(new Segment(day, max - size, max));
+                }
+            }
+        }
+    }
+
+    private static String format(String head, long seq, int width) {
+        String digits = Long.toString(seq);
+        StringBuilder sb = new StringBuilder(head.length() + Math.max(width, digits.length())).append(head);
+        for (int i = digits.length(); i < width; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    private static final class Segment {
+        private static final Segment EMPTY = new Segment("", 0, 0);
+
+        private final String day;
+        private final AtomicLong cursor;
+        private final long max;
+
+        private Segment(String day, long cursor, long max) {
+            this.day = day;
+            this.cursor = new AtomicLong(cursor);
+            this.max = max;
+        }
+    }
+}
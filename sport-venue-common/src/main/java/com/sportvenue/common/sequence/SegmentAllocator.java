@@ -0,0 +1,14 @@
+package com.sportvenue.common.sequence;
+
+/**
+ * 号段分配源（数据库/Redis 计数器等），须保证跨实例原子
+ */
+@FunctionalInterface
+public interface SegmentAllocator {
+
+    /**
+     * 为 key 租用 step 个连续序号，返回本号段的最大值（含），
+     * 即本次可用区间为 [返回值 - step + 1, 返回值]
+     */
+    long allocate(String key, int step);
+}
@@ -0,0 +1,17 @@
+package com.sportvenue.venue.config;
+
+import com.sportvenue.common.sequence.OrderNoGenerator;
+import com.sportvenue.venue.service.RedisSegmentAllocator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OrderNoConfig {
+
+    @Bean
+    public OrderNoGenerator orderNoGenerator(RedisSegmentAllocator allocator,
+                                             @Value("${saas.order-no.segment-step:50}") int step) {
+        return new OrderNoGenerator(allocator, step);
+    }
+}
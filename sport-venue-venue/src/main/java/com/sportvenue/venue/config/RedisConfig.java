@@ -1,9 +1,15 @@
 package com.sportvenue.venue.config;
 
+import com.sportvenue.venue.service.CashierCatalog;
+import com.sportvenue.venue.service.VenueCache;
+import com.sportvenue.venue.websocket.OccupancyFanoutListener;
+import com.sportvenue.venue.websocket.OccupancyWebSocket;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -26,20 +32,19 @@ public class RedisConfig {
         return template;
     }
     
-    @Bean("integerRedisTemplate")
-    public RedisTemplate<String, Integer> integerRedisTemplate(LettuceConnectionFactory factory) {
-        RedisTemplate<String, Integer> template = new RedisTemplate<>();
-        template.setConnectionFactory(factory);
-        
-        // 设置key的序列化方式
-        template.setKeySerializer(new StringRedisSerializer());
-        template.setHashKeySerializer(new StringRedisSerializer());
-        
-        // 设置value的序列化方式
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
-        
-        template.afterPropertiesSet();
-        return template;
+    /**
+     * Redis pub/sub 监听：场馆缓存失效广播、收银商品快照失效广播、场馆人数跨实例推送
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(LettuceConnectionFactory factory,
+                                                                       VenueCache venueCache,
+                                                                       CashierCatalog cashierCatalog,
+                                                                       OccupancyFanoutListener occupancyFanoutListener) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(venueCache, new ChannelTopic(VenueCache.INVALIDATE_CHANNEL));
+        container.addMessageListener(cashierCatalog, new ChannelTopic(CashierCatalog.INVALIDATE_CHANNEL));
+        container.addMessageListener(occupancyFanoutListener, new ChannelTopic(OccupancyWebSocket.CHANNEL));
+        return container;
     }
-} 
\ No newline at end of file
+}
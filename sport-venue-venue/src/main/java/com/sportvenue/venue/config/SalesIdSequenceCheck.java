@@ -0,0 +1,40 @@
+package com.sportvenue.venue.config;
+
+import com.sportvenue.venue.entity.SalesOrderItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 启动时校验销售明细主键号段：号段表由 ddl-auto 建成空表而未执行 V13 时，
+ * Hibernate 会从初始值开始发号，与存量明细主键冲突，此时直接拒绝启动
+ */
+@Slf4j
+@Component
+public class SalesIdSequenceCheck {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM sales_order_items", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        List<Long> nextVal = jdbcTemplate.queryForList(
+                "SELECT next_val FROM " + SalesOrderItem.ID_TABLE + " WHERE seq_name = ?", Long.class,
+                SalesOrderItem.ID_SEGMENT);
+        // pooled 号段的下界是 next_val - allocationSize，须高于现有最大 ID
+        if (nextVal.isEmpty() || nextVal.get(0) - SalesOrderItem.ID_ALLOCATION < maxId) {
+            throw new IllegalStateException("销售明细主键号段低于现有最大 ID " + maxId
+                    + "，请先执行 db/V13__sales_id_sequences.sql");
+        }
+        log.debug("销售明细主键号段 {}，现有最大 ID {}", nextVal.get(0), maxId);
+    }
+}
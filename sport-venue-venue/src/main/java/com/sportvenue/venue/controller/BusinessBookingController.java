@@ -3,7 +3,10 @@ package com.sportvenue.venue.controller;
 import com.sportvenue.common.model.ApiResponse;
 import com.sportvenue.venue.dto.booking.BookingCalendarDTO;
 import com.sportvenue.venue.dto.booking.BookingCreateRequest;
+import com.sportvenue.venue.dto.booking.BookingCursorPageDTO;
 import com.sportvenue.venue.dto.booking.BookingDTO;
+import com.sportvenue.venue.dto.booking.BookingRecurringRequest;
+import com.sportvenue.venue.dto.booking.BookingRecurringResultDTO;
 import com.sportvenue.venue.service.BookingService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,6 +43,18 @@ public class BusinessBookingController {
         return bookingService.list(date, venueId, courtId, status, bookType, page, size);
     }
 
+    @GetMapping("/cursor")
+    public ApiResponse<BookingCursorPageDTO> listByCursor(
+            @RequestParam(value = "date", required = false) String date,
+            @RequestParam(value = "venueId", required = false) Long venueId,
+            @RequestParam(value = "courtId", required = false) Long courtId,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "bookType", required = false) String bookType,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return bookingService.listByCursor(date, venueId, courtId, status, bookType, cursor, size);
+    }
+
     @GetMapping("/{id}")
     public ApiResponse<BookingDTO> detail(@PathVariable("id") Long id) {
         return bookingService.detail(id);
@@ -50,6 +65,11 @@ public class BusinessBookingController {
         return bookingService.create(request);
     }
 
+    @PostMapping("/recurring")
+    public ApiResponse<BookingRecurringResultDTO> createRecurring(@RequestBody BookingRecurringRequest request) {
+        return bookingService.createRecurring(request);
+    }
+
     @PostMapping("/{id}/cancel")
     public ApiResponse<BookingDTO> cancel(@PathVariable("id") Long id,
                                           @RequestBody(required = false) Map<String, Object> body) {
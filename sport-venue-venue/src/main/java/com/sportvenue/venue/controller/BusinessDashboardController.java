@@ -7,13 +7,13 @@ import com.sportvenue.venue.entity.Booking;
 import com.sportvenue.venue.entity.SalesOrder;
 import com.sportvenue.venue.entity.Venue;
 import com.sportvenue.venue.repository.BookingRepository;
+import com.sportvenue.venue.repository.BookingSearchFilter;
 import com.sportvenue.venue.repository.SalesOrderRepository;
 import com.sportvenue.venue.repository.VenueRepository;
 import com.sportvenue.venue.util.SecurityUtils;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
@@ -54,8 +54,8 @@ public class BusinessDashboardController {
                     .filter(Objects::nonNull)
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-            var bookings = bookingRepository.search(
-                    merchantId, null, null, null, null, null, start, end, PageRequest.of(0, 500)).getContent();
+            var bookings = bookingRepository.searchAfter(BookingSearchFilter.builder()
+                    .merchantId(merchantId).start(start).end(end).build(), null, null, 500);
 
             int booked = 0, completed = 0, cancelled = 0;
             BigDecimal bookingAmount = BigDecimal.ZERO;
@@ -1,9 +1,11 @@
 package com.sportvenue.venue.controller;
 
+import com.sportvenue.common.exception.BusinessException;
 import com.sportvenue.common.model.ApiResponse;
 import com.sportvenue.venue.dto.sales.*;
 import com.sportvenue.venue.entity.Venue;
 import com.sportvenue.venue.repository.VenueRepository;
+import com.sportvenue.venue.service.SalesReportExporter;
 import com.sportvenue.venue.service.SalesService;
 import com.sportvenue.venue.util.SecurityUtils;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,8 +13,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +39,9 @@ public class BusinessSalesController {
     @Autowired
     private VenueRepository venueRepository;
 
+    @Autowired
+    private SalesReportExporter salesReportExporter;
+
     @Operation(summary = "我的场馆")
     @GetMapping("/venues/mine")
     public ApiResponse<List<Map<String, Object>>> myVenues() {
@@ -108,9 +119,10 @@ public class BusinessSalesController {
             @RequestParam(value = "venueId", required = false) Long venueId,
             @RequestParam(value = "status", required = false) String status,
             @RequestParam(value = "payMethod", required = false) String payMethod,
+            @RequestParam(value = "summaryOnly", defaultValue = "false") boolean summaryOnly,
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "20") int size) {
-        return salesService.listOrders(date, venueId, status, payMethod, page, size);
+        return salesService.listOrders(date, venueId, status, payMethod, summaryOnly, page, size);
     }
 
     @Operation(summary = "日销售汇总")
@@ -128,4 +140,25 @@ public class BusinessSalesController {
             @RequestParam(value = "venueId", required = false) Long venueId) {
         return salesService.dailyProducts(date, venueId);
     }
+
+    @Operation(summary = "导出多日销售报表", description = "type: daily 按日期和场馆 / products 按商品 / items 订单明细，CSV 流式下载")
+    @GetMapping("/sales/report/export")
+    public ResponseEntity<?> exportReport(
+            @RequestParam(value = "type", defaultValue = "daily") String type,
+            @RequestParam(value = "start", required = false) String start,
+            @RequestParam(value = "end", required = false) String end,
+            @RequestParam(value = "venueId", required = false) Long venueId) {
+        SalesReportExporter.Report report;
+        try {
+            report = salesReportExporter.prepare(type, start, end, venueId);
+        } catch (BusinessException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getCode(), e.getMessage()));
+        }
+        StreamingResponseBody body = out -> salesReportExporter.write(report, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(report.filename()).build().toString())
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
 }
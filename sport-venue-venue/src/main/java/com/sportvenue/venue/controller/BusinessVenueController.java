@@ -3,9 +3,10 @@ package com.sportvenue.venue.controller;
 import com.sportvenue.common.exception.BusinessException;
 import com.sportvenue.common.model.ApiResponse;
 import com.sportvenue.venue.dto.VenueDTO;
+import com.sportvenue.venue.dto.VenueImportResultDTO;
 import com.sportvenue.venue.dto.VenueQueryDTO;
 import com.sportvenue.venue.entity.Venue;
-import com.sportvenue.venue.repository.VenueRepository;
+import com.sportvenue.venue.service.VenueCache;
 import com.sportvenue.venue.service.VenueService;
 import com.sportvenue.venue.util.SecurityUtils;
 import io.swagger.v3.oas.annotations.Operation;
@@ -14,8 +15,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
@@ -34,7 +40,7 @@ public class BusinessVenueController {
     private VenueService venueService;
 
     @Autowired
-    private VenueRepository venueRepository;
+    private VenueCache venueCache;
 
     /**
      * 创建场馆（B端商户）
@@ -145,9 +151,39 @@ public class BusinessVenueController {
         }
     }
 
+    /**
+     * 闸机进场（B端商户），满员时拒绝
+     */
+    @PostMapping("/{id}/occupancy/increment")
+    public ApiResponse<Integer> incrementOccupancy(@PathVariable("id") Long id,
+                                                   @RequestParam(value = "count", defaultValue = "1") Integer count) {
+        return adjustOccupancy(id, count, 1);
+    }
+
+    /**
+     * 闸机离场（B端商户）
+     */
+    @PostMapping("/{id}/occupancy/decrement")
+    public ApiResponse<Integer> decrementOccupancy(@PathVariable("id") Long id,
+                                                   @RequestParam(value = "count", defaultValue = "1") Integer count) {
+        return adjustOccupancy(id, count, -1);
+    }
+
+    private ApiResponse<Integer> adjustOccupancy(Long id, Integer count, int sign) {
+        try {
+            requireOwnVenue(id);
+            if (count == null || count <= 0) {
+                throw new BusinessException(400, "人数必须大于0");
+            }
+            return venueService.adjustVenueOccupancy(id, sign * count);
+        } catch (BusinessException e) {
+            return ApiResponse.error(e.getCode(), e.getMessage());
+        }
+    }
+
     private void requireOwnVenue(Long id) {
         Long merchantId = SecurityUtils.requireMerchantId();
-        Venue existing = venueRepository.findById(id)
+        Venue existing = venueCache.get(id)
                 .orElseThrow(() -> new BusinessException(400, "场馆不存在"));
         if (!merchantId.equals(existing.getMerchantId())) {
             throw new BusinessException(403, "无权操作该场馆");
@@ -227,20 +263,42 @@ public class BusinessVenueController {
     }
 
     /**
-     * 导入场馆数据（B端商户）
+     * 导入场馆数据（B端商户），全部归属当前商户
      */
     @PostMapping("/import")
-    public ApiResponse<Void> importVenues(@RequestBody List<Venue> venues) {
+    public ApiResponse<VenueImportResultDTO> importVenues(@RequestBody List<Venue> venues) {
+        Long merchantId = SecurityUtils.requireMerchantId();
+        String merchantName = SecurityUtils.requireCurrentUser().getMerchantName();
+        venues.forEach(v -> {
+            v.setMerchantId(merchantId);
+            v.setMerchantName(merchantName);
+        });
         log.info("B端商户导入场馆数据请求，场馆数量：{}", venues.size());
         return venueService.importVenues(venues);
     }
 
     /**
-     * 导出场馆数据（B端商户）
+     * 导入场馆文件（B端商户），支持 csv、json，未指定格式时按扩展名判断
+     */
+    @PostMapping("/import/file")
+    public ApiResponse<VenueImportResultDTO> importVenueFile(@RequestParam("file") MultipartFile file,
+                                                             @RequestParam(value = "format", required = false) String format) throws IOException {
+        Long merchantId = SecurityUtils.requireMerchantId();
+        String merchantName = SecurityUtils.requireCurrentUser().getMerchantName();
+        log.info("B端商户导入场馆文件请求：{}，{} 字节", file.getOriginalFilename(), file.getSize());
+        try (InputStream in = file.getInputStream()) {
+            return venueService.importVenues(in, VenueController.importFormat(file, format), merchantId, merchantName);
+        }
+    }
+
+    /**
+     * 导出场馆数据（B端商户），只导出当前商户的场馆
      */
     @GetMapping("/export")
-    public ApiResponse<List<Venue>> exportVenues(VenueQueryDTO queryDTO) {
+    public ResponseEntity<StreamingResponseBody> exportVenues(VenueQueryDTO queryDTO,
+                                                              @RequestParam(value = "format", defaultValue = "csv") String format) {
+        queryDTO.setMerchantId(SecurityUtils.requireMerchantId());
         log.info("B端商户导出场馆数据请求：{}", queryDTO);
-        return venueService.exportVenues(queryDTO);
+        return VenueController.download(format, out -> venueService.exportVenues(queryDTO, format, out));
     }
-} 
\ No newline at end of file
+}
@@ -68,6 +68,17 @@ public class CEndController {
         }
     }
 
+    @GetMapping("/venues/{id}/availability")
+    public ApiResponse<Map<String, Object>> availability(@PathVariable("id") Long id,
+                                                         @RequestParam("from") String from,
+                                                         @RequestParam(value = "days", required = false) Integer days) {
+        try {
+            return ApiResponse.success(cBookingService.availability(id, from, days));
+        } catch (BusinessException e) {
+            return ApiResponse.error(e.getCode(), e.getMessage());
+        }
+    }
+
     @PostMapping("/bookings")
     public ApiResponse<Map<String, Object>> createBooking(@RequestBody Map<String, Object> body) {
         try {
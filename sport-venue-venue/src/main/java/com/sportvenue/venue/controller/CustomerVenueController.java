@@ -4,6 +4,7 @@ import com.sportvenue.common.model.ApiResponse;
 import com.sportvenue.venue.dto.VenueDTO;
 import com.sportvenue.venue.dto.VenueQueryDTO;
 import com.sportvenue.venue.entity.Venue;
+import com.sportvenue.venue.service.VenueGeoIndex;
 import com.sportvenue.venue.service.VenueService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -66,18 +67,25 @@ public class CustomerVenueController {
     public ApiResponse<List<VenueDTO>> searchNearbyVenues(
             @RequestParam("longitude") BigDecimal longitude,
             @RequestParam("latitude") BigDecimal latitude,
-            @RequestParam(value = "radius", defaultValue = "0.01") BigDecimal radius) {
-        log.info("C端用户搜索附近场馆请求，经度：{}，纬度：{}，半径：{}", longitude, latitude, radius);
-        return venueService.searchNearbyVenues(longitude, latitude, radius);
+            @RequestParam(value = "radius", defaultValue = "0.01") BigDecimal radius,
+            @RequestParam(value = "radiusMeters", required = false) BigDecimal radiusMeters,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        // radius 为历史参数（单位：度），优先使用 radiusMeters
+        BigDecimal meters = radiusMeters != null ? radiusMeters
+                : radius.multiply(BigDecimal.valueOf(VenueGeoIndex.METERS_PER_DEGREE));
+        log.info("C端用户搜索附近场馆请求，经度：{}，纬度：{}，半径：{} 米", longitude, latitude, meters);
+        return venueService.searchNearbyVenues(longitude, latitude, meters, limit);
     }
 
     /**
      * 获取热门场馆（C端用户）
      */
     @GetMapping("/popular")
-    public ApiResponse<List<VenueDTO>> getPopularVenues(@RequestParam(value = "limit", defaultValue = "10") Integer limit) {
-        log.info("C端用户获取热门场馆请求，限制：{}", limit);
-        return venueService.getPopularVenues(limit);
+    public ApiResponse<List<VenueDTO>> getPopularVenues(
+            @RequestParam(value = "limit", defaultValue = "10") Integer limit,
+            @RequestParam(value = "rankBy", defaultValue = "rating") String rankBy) {
+        log.info("C端用户获取热门场馆请求，限制：{}，排序：{}", limit, rankBy);
+        return venueService.getPopularVenues(limit, rankBy);
     }
 
     /**
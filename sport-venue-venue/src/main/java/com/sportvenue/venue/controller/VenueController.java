@@ -2,8 +2,10 @@ package com.sportvenue.venue.controller;
 
 import com.sportvenue.common.model.ApiResponse;
 import com.sportvenue.venue.dto.VenueDTO;
+import com.sportvenue.venue.dto.VenueImportResultDTO;
 import com.sportvenue.venue.dto.VenueQueryDTO;
 import com.sportvenue.venue.entity.Venue;
+import com.sportvenue.venue.service.VenueImportService;
 import com.sportvenue.venue.service.VenueService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,8 +13,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -151,23 +163,40 @@ public class VenueController {
     /**
      * 批量导入场馆
      */
-    @Operation(summary = "批量导入场馆", description = "批量导入场馆数据")
+    @Operation(summary = "批量导入场馆", description = "批量导入场馆数据，返回导入条数和逐行失败原因")
     @PostMapping("/import")
-    public ApiResponse<Void> importVenues(@RequestBody List<Venue> venues) {
+    public ApiResponse<VenueImportResultDTO> importVenues(@RequestBody List<Venue> venues) {
         log.info("批量导入场馆请求，场馆数量：{}", venues.size());
         return venueService.importVenues(venues);
     }
 
+    /**
+     * 导入场馆文件
+     */
+    @Operation(summary = "导入场馆文件", description = "上传 csv 或 json 文件批量导入场馆，未指定格式时按扩展名判断")
+    @PostMapping("/import/file")
+    public ApiResponse<VenueImportResultDTO> importVenueFile(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "merchantId", required = false) Long merchantId,
+            @RequestParam(value = "merchantName", required = false) String merchantName) throws IOException {
+        log.info("导入场馆文件请求：{}，{} 字节，商户ID：{}", file.getOriginalFilename(), file.getSize(), merchantId);
+        try (InputStream in = file.getInputStream()) {
+            return venueService.importVenues(in, importFormat(file, format), merchantId, merchantName);
+        }
+    }
+
     /**
      * 导出场馆数据
      */
-    @Operation(summary = "导出场馆数据", description = "导出场馆数据")
+    @Operation(summary = "导出场馆数据", description = "按条件流式导出场馆数据，支持 csv、json")
     @GetMapping("/export")
-    public ApiResponse<List<Venue>> exportVenues(
+    public ResponseEntity<StreamingResponseBody> exportVenues(
             @RequestParam(value = "type", required = false) String type,
             @RequestParam(value = "status", required = false) String status,
-            @RequestParam(value = "merchantId", required = false) Long merchantId) {
-        log.info("导出场馆数据请求，类型：{}，状态：{}，商户ID：{}", type, status, merchantId);
+            @RequestParam(value = "merchantId", required = false) Long merchantId,
+            @RequestParam(value = "format", defaultValue = "csv") String format) {
+        log.info("导出场馆数据请求，类型：{}，状态：{}，商户ID：{}，格式：{}", type, status, merchantId, format);
         
         VenueQueryDTO queryDTO = new VenueQueryDTO();
         if (type != null) {
@@ -178,7 +207,26 @@ public class VenueController {
         }
         queryDTO.setMerchantId(merchantId);
         
-        return venueService.exportVenues(queryDTO);
+        return download(format, out -> venueService.exportVenues(queryDTO, format, out));
+    }
+
+    /** 导入格式：显式指定优先，否则取文件扩展名 */
+    static String importFormat(MultipartFile file, String format) {
+        if (StringUtils.hasText(format)) {
+            return format;
+        }
+        String ext = StringUtils.getFilenameExtension(file.getOriginalFilename());
+        return ext == null ? VenueImportService.CSV : ext.toLowerCase();
+    }
+
+    /** 以附件形式流式下载导出文件 */
+    static ResponseEntity<StreamingResponseBody> download(String format, StreamingResponseBody body) {
+        boolean json = VenueImportService.JSON.equalsIgnoreCase(format);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(json ? "venues.json" : "venues.csv").build().toString())
+                .contentType(json ? MediaType.APPLICATION_JSON : new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
     }
 
     /**
@@ -191,6 +239,32 @@ public class VenueController {
         return venueService.updateVenueOccupancy(id, occupancy);
     }
 
+    /**
+     * 闸机进场
+     */
+    @Operation(summary = "场馆进场计数", description = "闸机进场时原子增加场馆人数，满员时拒绝")
+    @PostMapping("/{id}/occupancy/increment")
+    public ApiResponse<Integer> incrementOccupancy(@PathVariable("id") Long id,
+                                                   @RequestParam(value = "count", defaultValue = "1") Integer count) {
+        if (count == null || count <= 0) {
+            return ApiResponse.error(400, "人数必须大于0");
+        }
+        return venueService.adjustVenueOccupancy(id, count);
+    }
+
+    /**
+     * 闸机离场
+     */
+    @Operation(summary = "场馆离场计数", description = "闸机离场时原子减少场馆人数，最少减到0")
+    @PostMapping("/{id}/occupancy/decrement")
+    public ApiResponse<Integer> decrementOccupancy(@PathVariable("id") Long id,
+                                                   @RequestParam(value = "count", defaultValue = "1") Integer count) {
+        if (count == null || count <= 0) {
+            return ApiResponse.error(400, "人数必须大于0");
+        }
+        return venueService.adjustVenueOccupancy(id, -count);
+    }
+
     /**
      * 获取场馆状态列表
      */
@@ -0,0 +1,28 @@
+package com.sportvenue.venue.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 场馆批量导入结果
+ */
+@Data
+@Builder
+public class VenueImportResultDTO {
+    private int total;
+    private int imported;
+    private int failed;
+    /** 失败明细，最多返回前 1000 条 */
+    private List<RowError> errors;
+
+    @Data
+    @Builder
+    public static class RowError {
+        /** CSV 为表格行号（表头为第 1 行），JSON 为数组下标（从 1 开始） */
+        private int row;
+        private String name;
+        private String message;
+    }
+}
@@ -0,0 +1,15 @@
+package com.sportvenue.venue.dto.booking;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BookingCursorPageDTO {
+    private List<BookingDTO> items;
+    /** 下一页游标，原样回传；没有更多时为空 */
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,32 @@
+package com.sportvenue.venue.dto.booking;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class BookingRecurringRequest {
+    private Long courtId;
+    /** 首日，yyyy-MM-dd */
+    private String startDate;
+    /** 末日（含），yyyy-MM-dd */
+    private String endDate;
+    /** 周几，1=周一 ... 7=周日；为空则每天 */
+    private List<Integer> weekdays;
+    /** 每隔几周，默认 1 */
+    private Integer intervalWeeks;
+    /** 每次开始时间，HH:mm */
+    private String startTime;
+    /** 每次结束时间，HH:mm，须晚于开始时间 */
+    private String endTime;
+    /** true 时跳过冲突场次建其余场次；false 时有冲突则整批不建 */
+    private boolean skipConflicts;
+    private String bookType;
+    private Long teamId;
+    private String personName;
+    private String personPhone;
+    /** 每场金额 */
+    private BigDecimal amount;
+    private String remark;
+}
@@ -0,0 +1,24 @@
+package com.sportvenue.venue.dto.booking;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BookingRecurringResultDTO {
+    private int occurrences;
+    private int createdCount;
+    private List<BookingDTO> created;
+    private List<Conflict> conflicts;
+
+    @Data
+    @Builder
+    public static class Conflict {
+        private String startTime;
+        private String endTime;
+        /** 冲突的已有订场单号，被并发抢占时可能为空 */
+        private String conflictOrderNo;
+    }
+}
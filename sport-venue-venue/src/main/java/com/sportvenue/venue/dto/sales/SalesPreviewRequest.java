@@ -17,6 +17,9 @@ public class SalesPreviewRequest {
     @Valid
     private List<Item> items;
 
+    /** 预览返回的计价指纹，下单时带上则校验价格未变 */
+    private String cartToken;
+
     @Data
     public static class Item {
         @NotNull(message = "商品ID不能为空")
@@ -19,4 +19,6 @@ public class SalesPreviewResponse {
     private Integer totalQty;
     private Integer itemCount;
     private List<SalesItemDTO> items;
+    /** 计价指纹，下单时原样带回 */
+    private String cartToken;
 }
@@ -13,7 +13,11 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings",
+        indexes = {
+                @Index(name = "idx_status_end", columnList = "status, end_time"),
+                @Index(name = "idx_merchant_start", columnList = "merchant_id, start_time, id")
+        })
 @EntityListeners(AuditingEntityListener.class)
 @EqualsAndHashCode(callSuper = false)
 public class Booking {
@@ -0,0 +1,33 @@
+package com.sportvenue.venue.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 片场半小时段占用声明：(court_id, slot_start) 唯一，并发建单时由唯一键裁决胜者
+ */
+@Data
+@Entity
+@Table(name = "booking_slot_claims",
+        uniqueConstraints = @UniqueConstraint(name = "uk_bsc_court_slot", columnNames = {"court_id", "slot_start"}),
+        indexes = @Index(name = "idx_bsc_order_no", columnList = "order_no"))
+public class BookingSlotClaim {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "court_id", nullable = false)
+    private Long courtId;
+
+    @Column(name = "slot_start", nullable = false)
+    private LocalDateTime slotStart;
+
+    @Column(name = "order_no", nullable = false, length = 32)
+    private String orderNo;
+
+    @Column(name = "create_time")
+    private LocalDateTime createTime;
+}
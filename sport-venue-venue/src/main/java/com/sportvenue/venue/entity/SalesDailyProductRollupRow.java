@@ -0,0 +1,57 @@
+package com.sportvenue.venue.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 销售日商品汇总一行，只用于建表；读写都在 SalesDailyRollup 中以 SQL 完成。
+ * operator_id、product_id 为空时记 0，商品名称和单价为下单时的快照
+ */
+@Data
+@Entity
+@Table(name = "sales_daily_product_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sdpr", columnNames = {"merchant_id", "sale_date",
+                "venue_id", "operator_id", "product_id", "product_name", "unit_price"}),
+        indexes = @Index(name = "idx_sdpr_date", columnList = "sale_date"))
+public class SalesDailyProductRollupRow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "merchant_id", nullable = false)
+    private Long merchantId;
+
+    @Column(name = "sale_date", nullable = false)
+    private LocalDate saleDate;
+
+    @Column(name = "venue_id", nullable = false)
+    private Long venueId;
+
+    @Column(name = "operator_id", nullable = false)
+    private Long operatorId = 0L;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId = 0L;
+
+    @Column(name = "product_name", nullable = false, length = 100)
+    private String productName;
+
+    @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal unitPrice;
+
+    @Column(nullable = false, length = 20)
+    private String unit;
+
+    @Column(name = "order_count", nullable = false)
+    private Integer orderCount = 0;
+
+    @Column(name = "total_qty", nullable = false)
+    private Integer totalQty = 0;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+}
@@ -0,0 +1,48 @@
+package com.sportvenue.venue.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 销售日汇总（按支付方式）一行，只用于建表；读写都在 SalesDailyRollup 中以 SQL 完成。
+ * operator_id 为空时记 0，保证唯一键可用于 ON DUPLICATE KEY UPDATE
+ */
+@Data
+@Entity
+@Table(name = "sales_daily_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sdr",
+                columnNames = {"merchant_id", "sale_date", "venue_id", "operator_id", "pay_method"}),
+        indexes = @Index(name = "idx_sdr_date", columnList = "sale_date"))
+public class SalesDailyRollupRow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "merchant_id", nullable = false)
+    private Long merchantId;
+
+    @Column(name = "sale_date", nullable = false)
+    private LocalDate saleDate;
+
+    @Column(name = "venue_id", nullable = false)
+    private Long venueId;
+
+    @Column(name = "operator_id", nullable = false)
+    private Long operatorId = 0L;
+
+    @Column(name = "pay_method", nullable = false, length = 30)
+    private String payMethod;
+
+    @Column(name = "order_count", nullable = false)
+    private Integer orderCount = 0;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "total_qty", nullable = false)
+    private Integer totalQty = 0;
+}
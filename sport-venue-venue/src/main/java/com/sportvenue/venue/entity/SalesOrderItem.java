@@ -17,8 +17,19 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(callSuper = false)
 public class SalesOrderItem {
 
+    /** 主键号段表及本表在其中的行名，每次租用的号段长度 */
+    public static final String ID_TABLE = "sales_id_sequences";
+    public static final String ID_SEGMENT = "sales_order_items";
+    public static final int ID_ALLOCATION = 200;
+
+    /**
+     * 主键从 sales_id_sequences 号段表按段租用（pooled），持久化时不必先 INSERT 拿自增 ID，
+     * Hibernate 才能把一张销售单的全部明细合并成一次 JDBC batch；号段须高于现有最大 ID，见 SalesIdSequenceCheck
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "sales_order_items_id")
+    @TableGenerator(name = "sales_order_items_id", table = ID_TABLE, pkColumnName = "seq_name",
+            valueColumnName = "next_val", pkColumnValue = ID_SEGMENT, allocationSize = ID_ALLOCATION)
     private Long id;
 
     @Column(name = "order_id", nullable = false)
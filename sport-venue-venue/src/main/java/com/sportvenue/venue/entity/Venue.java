@@ -18,7 +18,11 @@ import java.util.List;
  */
 @Data
 @Entity
-@Table(name = "venues")
+@Table(name = "venues",
+        indexes = {
+                @Index(name = "idx_status_create", columnList = "status, create_time, id"),
+                @Index(name = "idx_merchant_create", columnList = "merchant_id, create_time, id")
+        })
 @EntityListeners(AuditingEntityListener.class)
 @EqualsAndHashCode(callSuper = false)
 public class Venue {
@@ -119,8 +123,9 @@ public class Venue {
     private Integer capacity;
     
     /**
-     * 当前使用人数
+     * 当前使用人数，以 Redis 计数为准，只由 VenueOccupancyCounter 批量回写，实体保存时不覆盖
      */
+    @Column(updatable = false)
     private Integer currentOccupancy = 0;
     
     /**
@@ -147,13 +152,21 @@ public class Venue {
     private String tags;
     
     /**
-     * 评分（1-5分）
+     * 评分（1-5分），= ratingSum / ratingCount，只由 VenueRepository.addRating 等原子 UPDATE 维护
      */
+    @Column(updatable = false)
     private BigDecimal rating = BigDecimal.ZERO;
     
+    /**
+     * 评分总和；存量行为空表示尚未回填，见 VenueRatingRecomputeJob.backfillLegacyRatings
+     */
+    @Column(name = "rating_sum", updatable = false, precision = 14, scale = 2)
+    private BigDecimal ratingSum = BigDecimal.ZERO;
+    
     /**
      * 评分人数
      */
+    @Column(updatable = false)
     private Integer ratingCount = 0;
     
     /**
@@ -0,0 +1,32 @@
+package com.sportvenue.venue.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 场馆评分明细，只追加；weight 为票数，迁移前的存量评分按一行加权汇总记录
+ */
+@Data
+@Entity
+@Table(name = "venue_ratings", indexes = @Index(name = "idx_vr_venue", columnList = "venue_id"))
+public class VenueRating {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "venue_id", nullable = false)
+    private Long venueId;
+
+    @Column(nullable = false, precision = 3, scale = 2)
+    private BigDecimal score;
+
+    @Column(nullable = false)
+    private Integer weight = 1;
+
+    @Column(name = "create_time")
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,9 @@
+package com.sportvenue.venue.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订场单已创建，事务提交后登记其结束时间的过期定时
+ */
+public record BookingCreatedEvent(Long id, LocalDateTime endTime) {
+}
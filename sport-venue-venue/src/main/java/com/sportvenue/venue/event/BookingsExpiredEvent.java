@@ -0,0 +1,13 @@
+package com.sportvenue.venue.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 一批订场单被置为 EXPIRED，供内存占用缓存在事务提交后释放对应时段
+ */
+public record BookingsExpiredEvent(List<Expired> bookings) {
+
+    public record Expired(Long id, Long courtId, LocalDateTime startTime, LocalDateTime endTime) {
+    }
+}
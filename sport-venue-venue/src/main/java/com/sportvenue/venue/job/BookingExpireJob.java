@@ -1,15 +1,20 @@
 package com.sportvenue.venue.job;
 
 import com.sportvenue.venue.entity.Booking;
+import com.sportvenue.venue.event.BookingsExpiredEvent;
 import com.sportvenue.venue.repository.BookingRepository;
+import com.sportvenue.venue.repository.BookingSlotClaimRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 
 @Slf4j
 @Component
@@ -17,20 +22,89 @@ public class BookingExpireJob {
 
     @Autowired
     private BookingRepository bookingRepository;
+    @Autowired
+    private BookingSlotClaimRepository claimRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${saas.booking.expire-batch-size:500}")
+    private int batchSize;
 
-    /** 每 5 分钟：已过结束时间的 BOOKED → EXPIRED，释放占用 */
-    @Scheduled(fixedDelayString = "${saas.booking.expire-delay-ms:300000}")
-    @Transactional
+    /**
+     * 兜底扫描（默认每 30 分钟）：已过结束时间的 BOOKED → EXPIRED，释放占用。
+     * 日常由 BookingLifecycleScheduler 按结束时间准点触发，这里只处理漏网的单。
+     * 按 (status, end_time) 索引分批取候选并批量 UPDATE，每批一个短事务
+     */
+    @Scheduled(fixedDelayString = "${saas.booking.expire-delay-ms:1800000}")
     public void expireBookings() {
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> list = bookingRepository.findByStatusAndEndTimeBefore(Booking.BookingStatus.BOOKED, now);
-        if (list.isEmpty()) {
+        long begin = System.nanoTime();
+        int total = 0;
+        int expired;
+        do {
+            Integer n = transactionTemplate.execute(status -> expireChunk(now));
+            expired = n == null ? 0 : n;
+            total += expired;
+        } while (expired >= batchSize);
+        if (total == 0) {
             return;
         }
-        for (Booking b : list) {
-            b.setStatus(Booking.BookingStatus.EXPIRED);
+        double seconds = Math.max((System.nanoTime() - begin) / 1e9, 1e-3);
+        log.info("订场自动过期 {} 单，耗时 {} ms，{} 单/秒",
+                total, Math.round(seconds * 1000), Math.round(total / seconds));
+    }
+
+    /** 按 ID 过期已到结束时间的 BOOKED 单，返回实际过期数 */
+    public int expireIds(List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Integer n = transactionTemplate.execute(status -> expireRows(
+                    bookingRepository.findExpireCandidatesIn(chunk, Booking.BookingStatus.BOOKED, now), now));
+            total += n == null ? 0 : n;
+        }
+        return total;
+    }
+
+    /** 处理一批，返回本批候选数（小于 batchSize 说明已处理完） */
+    private int expireChunk(LocalDateTime now) {
+        List<Object[]> rows = bookingRepository.findExpireCandidates(
+                Booking.BookingStatus.BOOKED, now, PageRequest.of(0, batchSize));
+        expireRows(rows, now);
+        return rows.size();
+    }
+
+    /** 将候选行置为 EXPIRED 并释放占位，返回实际过期数 */
+    private int expireRows(List<Object[]> rows, LocalDateTime now) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] r : rows) {
+            ids.add((Long) r[0]);
+        }
+        int updated = bookingRepository.transitStatus(
+                ids, Booking.BookingStatus.BOOKED, Booking.BookingStatus.EXPIRED, now);
+        // 选出候选后被并发取消/完成的单不在本批释放范围内
+        Set<Long> done = updated == ids.size()
+                ? new HashSet<>(ids)
+                : new HashSet<>(bookingRepository.findIdsInStatus(ids, Booking.BookingStatus.EXPIRED));
+        List<String> orderNos = new ArrayList<>(done.size());
+        List<BookingsExpiredEvent.Expired> expired = new ArrayList<>(done.size());
+        for (Object[] r : rows) {
+            if (done.contains((Long) r[0])) {
+                orderNos.add((String) r[4]);
+                expired.add(new BookingsExpiredEvent.Expired(
+                        (Long) r[0], (Long) r[1], (LocalDateTime) r[2], (LocalDateTime) r[3]));
+            }
+        }
+        if (!orderNos.isEmpty()) {
+            claimRepository.deleteByOrderNoIn(orderNos);
+            eventPublisher.publishEvent(new BookingsExpiredEvent(expired));
         }
-        bookingRepository.saveAll(list);
-        log.info("订场自动过期 {} 单", list.size());
+        return expired.size();
     }
 }
@@ -0,0 +1,98 @@
+package com.sportvenue.venue.job;
+
+import com.sportvenue.venue.entity.Booking;
+import com.sportvenue.venue.event.BookingCreatedEvent;
+import com.sportvenue.venue.repository.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 订场结束时间准点过期：建单时把结束时间登记到内存时间轮，每秒推进一次，
+ * 到期后按 ID 批量置为 EXPIRED，代价只与到期单数有关。
+ * 启动时及之后定期从库补登未来一段窗口内的 BOOKED 单（有上限），
+ * 覆盖重启前与其他实例创建的订场；BookingExpireJob 仍做低频兜底
+ */
+@Slf4j
+@Component
+public class BookingLifecycleScheduler {
+
+    private static final long TICK_MS = 1000L;
+    private static final int WHEEL_SIZE = 60;
+    private static final int WHEEL_LEVELS = 4;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingExpireJob bookingExpireJob;
+
+    @Value("${saas.booking.timer-horizon-hours:24}")
+    private long horizonHours;
+    @Value("${saas.booking.timer-rehydrate-limit:50000}")
+    private int rehydrateLimit;
+
+    private final HierarchicalTimerWheel<Long> wheel =
+            new HierarchicalTimerWheel<>(TICK_MS, WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingCreated(BookingCreatedEvent event) {
+        schedule(event.id(), event.endTime());
+    }
+
+    @Scheduled(fixedDelay = TICK_MS)
+    public void tick() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        due.forEach(scheduled::remove);
+        try {
+            int n = bookingExpireJob.expireIds(due);
+            if (n > 0) {
+                log.info("订场到点过期 {} 单", n);
+            }
+        } catch (Exception e) {
+            // 失败的单留给 BookingExpireJob 兜底
+            log.error("订场到点过期失败，共 {} 单", due.size(), e);
+        }
+    }
+
+    /** 启动后立即执行一次，之后按间隔补登未来窗口内的订场 */
+    @Scheduled(fixedDelayString = "${saas.booking.timer-rehydrate-ms:600000}")
+    public void rehydrate() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = bookingRepository.findEndingBetween(Booking.BookingStatus.BOOKED,
+                now, now.plusHours(horizonHours), PageRequest.of(0, rehydrateLimit));
+        int added = 0;
+        for (Object[] r : rows) {
+            if (schedule((Long) r[0], (LocalDateTime) r[1])) {
+                added++;
+            }
+        }
+        if (added > 0) {
+            log.info("订场过期时间轮补登 {} 单，当前待触发 {} 单", added, wheel.size());
+        }
+        if (rows.size() >= rehydrateLimit) {
+            log.warn("未来 {} 小时内待过期订场超过补登上限 {}，其余由兜底任务处理", horizonHours, rehydrateLimit);
+        }
+    }
+
+    private boolean schedule(Long bookingId, LocalDateTime endTime) {
+        if (bookingId == null || endTime == null || !scheduled.add(bookingId)) {
+            return false;
+        }
+        wheel.schedule(bookingId, endTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        return true;
+    }
+}
@@ -0,0 +1,129 @@
+package com.sportvenue.venue.job;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分层时间轮：第 0 层每格 tickMs，第 n 层每格 tickMs * wheelSize^n。
+ * 超出本层范围的任务放到上一层，上层指针前进时把到期格子的任务降级重排，
+ * 因此每次推进只处理真正到期的格子，与待触发任务总数无关。
+ * 非线程安全的状态由 synchronized 保护，调度线程与业务线程可并发调用
+ */
+public class HierarchicalTimerWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final Level<T>[] levels;
+    private final List<Entry<T>> due = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimerWheel(long tickMs, int wheelSize, int levelCount, long startMs) {
+        if (tickMs < 1 || wheelSize < 2 || levelCount < 1) {
+            throw new IllegalArgumentException("invalid timer wheel shape");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levels = (Level<T>[]) new Level[levelCount];
+        long levelTick = tickMs;
+        for (int i = 0; i < levelCount; i++) {
+            levels[i] = new Level<>(levelTick, wheelSize, startMs / levelTick);
+            levelTick *= wheelSize;
+        }
+    }
+
+    /** 登记任务；已到期的任务在下一次 advance 时立即返回 */
+    public synchronized void schedule(T task, long deadlineMs) {
+        insert(new Entry<>(task, deadlineMs));
+    }
+
+    /** 推进到 nowMs，返回期间到期的任务 */
+    public synchronized List<T> advance(long nowMs) {
+        Level<T> root = levels[0];
+        long target = nowMs / tickMs;
+        while (root.current < target) {
+            root.current++;
+            cascade(1, root.current);
+            due.addAll(root.drain(root.current));
+        }
+        List<T> result = new ArrayList<>(due.size());
+        for (Entry<T> e : due) {
+            result.add(e.task);
+        }
+        due.clear();
+        return result;
+    }
+
+    public synchronized int size() {
+        int n = due.size();
+        for (Level<T> level : levels) {
+            for (List<Entry<T>> bucket : level.buckets) {
+                n += bucket.size();
+            }
+        }
+        return n;
+    }
+
+    /** 下层指针走完一圈时，上层前进一格并把该格任务重新分配 */
+    private void cascade(int levelIndex, long lowerCurrent) {
+        if (levelIndex >= levels.length || lowerCurrent % wheelSize != 0) {
+            return;
+        }
+        Level<T> level = levels[levelIndex];
+        level.current = lowerCurrent / wheelSize;
+        cascade(levelIndex + 1, level.current);
+        for (Entry<T> e : level.drain(level.current)) {
+            insert(e);
+        }
+    }
+
+    private void insert(Entry<T> e) {
+        for (int i = 0; i < levels.length; i++) {
+            Level<T> level = levels[i];
+            long tick = e.deadlineMs / level.tickMs;
+            if (i == 0 && tick <= level.current) {
+                due.add(e);
+                return;
+            }
+            if (tick < level.current + wheelSize) {
+                level.bucket(tick).add(e);
+                return;
+            }
+        }
+        // 超出最高层范围：先放在最高层最远一格，轮转到时再重排
+        Level<T> top = levels[levels.length - 1];
+        top.bucket(top.current + wheelSize - 1).add(e);
+    }
+
+    private record Entry<T>(T task, long deadlineMs) {
+    }
+
+    private static final class Level<T> {
+        private final long tickMs;
+        private final List<Entry<T>>[] buckets;
+        private long current;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tickMs, int size, long current) {
+            this.tickMs = tickMs;
+            this.buckets = new List[size];
+            for (int i = 0; i < size; i++) {
+                buckets[i] = new ArrayList<>();
+            }
+            this.current = current;
+        }
+
+        private List<Entry<T>> bucket(long tick) {
+            return buckets[(int) (tick % buckets.length)];
+        }
+
+        private List<Entry<T>> drain(long tick) {
+            List<Entry<T>> bucket = bucket(tick);
+            if (bucket.isEmpty()) {
+                return List.of();
+            }
+            List<Entry<T>> out = new ArrayList<>(bucket);
+            bucket.clear();
+            return out;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.sportvenue.venue.job;
+
+import com.sportvenue.venue.repository.VenueRepository;
+import com.sportvenue.venue.service.VenueRanking;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Component
+public class VenueRatingRecomputeJob {
+
+    @Autowired
+    private VenueRepository venueRepository;
+    @Autowired
+    private VenueRanking venueRanking;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${saas.venue.rating-recompute-chunk:1000}")
+    private int chunk;
+
+    /**
+     * 启动时回填存量评分。rating_sum 可能由 ddl-auto 建成空列而未执行 V11，此时首个新评分会按
+     * 0 + score 计算均值，重算也会丢掉旧评分；先记加权汇总明细再补 rating_sum，可重复执行
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillLegacyRatings() {
+        int[] counts = transactionTemplate.execute(status ->
+                new int[]{venueRepository.seedLegacyRatings(), venueRepository.backfillRatingSum()});
+        if (counts != null && counts[1] > 0) {
+            log.warn("已回填 {} 个场馆的存量评分，补记 {} 条加权明细", counts[1], counts[0]);
+            venueRanking.rebuild();
+        }
+    }
+
+    /**
+     * 按评分明细全量重算场馆评分汇总（默认每天 03:30），用于回填或修正偏差。
+     * 按场馆 ID 分段，每段一个短事务，只改写有偏差的行
+     */
+    @Scheduled(cron = "${saas.venue.rating-recompute-cron:0 30 3 * * ?}")
+    public void recompute() {
+        Long maxId = venueRepository.findMaxId();
+        if (maxId == null) {
+            return;
+        }
+        long begin = System.nanoTime();
+        int total = 0;
+        for (long start = 1; start <= maxId; start += chunk) {
+            long from = start;
+            long to = start + chunk - 1;
+            Integer n = transactionTemplate.execute(status -> venueRepository.recomputeRatings(from, to));
+            total += n == null ? 0 : n;
+        }
+        if (total > 0) {
+            venueRanking.rebuild();
+        }
+        log.info("场馆评分重算完成，修正 {} 个场馆，耗时 {} ms", total, (System.nanoTime() - begin) / 1_000_000);
+    }
+}
@@ -0,0 +1,96 @@
+package com.sportvenue.venue.repository;
+
+import com.sportvenue.venue.entity.Booking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 订场批量写入：JPA IDENTITY 主键无法批量 INSERT，这里直接走 JDBC batch
+ * （配合连接串 rewriteBatchedStatements=true 合并为多值 INSERT），与 JPA 共用同一事务
+ */
+@Repository
+public class BookingBatchWriter {
+
+    private static final String INSERT_BOOKING =
+            "INSERT INTO bookings (order_no, merchant_id, venue_id, court_id, start_time, end_time, book_type, " +
+            "team_id, team_name, person_name, person_phone, operator_id, operator_name, liaison_staff_id, " +
+            "liaison_staff_name, status, amount, source, customer_user_id, remark, create_time, update_time) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_CLAIM =
+            "INSERT IGNORE INTO booking_slot_claims (court_id, slot_start, order_no, create_time) VALUES (?, ?, ?, ?)";
+    /** 与 V7 回填相同，只处理尚未结束的订场单；INSERT IGNORE 保证可重复执行 */
+    private static final String BACKFILL_CLAIMS =
+            "INSERT IGNORE INTO booking_slot_claims (court_id, slot_start, order_no, create_time) " +
+            "WITH RECURSIVE slots (court_id, slot_start, end_time, order_no) AS (" +
+            "SELECT court_id, DATE_SUB(start_time, INTERVAL MOD(MINUTE(start_time), 30) * 60 + SECOND(start_time) SECOND), " +
+            "end_time, order_no FROM bookings WHERE status IN ('BOOKED', 'COMPLETED') AND end_time > ? " +
+            "UNION ALL " +
+            "SELECT court_id, DATE_ADD(slot_start, INTERVAL 30 MINUTE), end_time, order_no FROM slots " +
+            "WHERE DATE_ADD(slot_start, INTERVAL 30 MINUTE) < end_time) " +
+            "SELECT court_id, slot_start, order_no, NOW() FROM slots";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public void insertBookings(List<Booking> bookings, int batchSize) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_BOOKING, bookings, batchSize, (ps, b) -> {
+            ps.setString(1, b.getOrderNo());
+            ps.setLong(2, b.getMerchantId());
+            ps.setLong(3, b.getVenueId());
+            ps.setLong(4, b.getCourtId());
+            ps.setTimestamp(5, Timestamp.valueOf(b.getStartTime()));
+            ps.setTimestamp(6, Timestamp.valueOf(b.getEndTime()));
+            ps.setString(7, b.getBookType().name());
+            ps.setObject(8, b.getTeamId());
+            ps.setString(9, b.getTeamName());
+            ps.setString(10, b.getPersonName());
+            ps.setString(11, b.getPersonPhone());
+            ps.setLong(12, b.getOperatorId());
+            ps.setString(13, b.getOperatorName());
+            ps.setObject(14, b.getLiaisonStaffId());
+            ps.setString(15, b.getLiaisonStaffName());
+            ps.setString(16, b.getStatus().name());
+            ps.setBigDecimal(17, b.getAmount());
+            ps.setString(18, b.getSource());
+            ps.setObject(19, b.getCustomerUserId());
+            ps.setString(20, b.getRemark());
+            ps.setTimestamp(21, now);
+            ps.setTimestamp(22, now);
+        });
+    }
+
+    /** 批量 INSERT IGNORE 占位，rows 为 (courtId, slotStart, orderNo) */
+    public void insertClaims(List<Object[]> rows, int batchSize) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_CLAIM, rows, batchSize, (ps, r) -> {
+            ps.setLong(1, (Long) r[0]);
+            ps.setTimestamp(2, Timestamp.valueOf((LocalDateTime) r[1]));
+            ps.setString(3, (String) r[2]);
+            ps.setTimestamp(4, now);
+        });
+    }
+
+    /** 各单号实际拿到的占位数：order_no -> count */
+    public List<Object[]> countClaims(Collection<String> orderNos) {
+        return namedJdbcTemplate.query(
+                "SELECT order_no, COUNT(*) FROM booking_slot_claims WHERE order_no IN (:orderNos) GROUP BY order_no",
+                new MapSqlParameterSource("orderNos", orderNos),
+                (rs, i) -> new Object[]{rs.getString(1), rs.getLong(2)});
+    }
+
+    /** 为 end_time 晚于 since 的占用中订场单补齐占位，返回新写入的占位数 */
+    public int backfillClaims(LocalDateTime since) {
+        return jdbcTemplate.update(BACKFILL_CLAIMS, Timestamp.valueOf(since));
+    }
+}
@@ -1,17 +1,18 @@
 package com.sportvenue.venue.repository;
 
 import com.sportvenue.venue.entity.Booking;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingSearchRepository {
 
     Optional<Booking> findByIdAndMerchantId(Long id, Long merchantId);
 
@@ -25,25 +26,6 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                 @Param("statuses") List<Booking.BookingStatus> statuses,
                                 @Param("excludeId") Long excludeId);
 
-    @Query("SELECT b FROM Booking b WHERE b.merchantId = :merchantId " +
-           "AND (:venueId IS NULL OR b.venueId = :venueId) " +
-           "AND (:courtId IS NULL OR b.courtId = :courtId) " +
-           "AND (:status IS NULL OR b.status = :status) " +
-           "AND (:bookType IS NULL OR b.bookType = :bookType) " +
-           "AND (:operatorId IS NULL OR b.operatorId = :operatorId) " +
-           "AND (:start IS NULL OR b.startTime >= :start) " +
-           "AND (:end IS NULL OR b.startTime < :end) " +
-           "ORDER BY b.startTime DESC")
-    Page<Booking> search(@Param("merchantId") Long merchantId,
-                         @Param("venueId") Long venueId,
-                         @Param("courtId") Long courtId,
-                         @Param("status") Booking.BookingStatus status,
-                         @Param("bookType") Booking.BookType bookType,
-                         @Param("operatorId") Long operatorId,
-                         @Param("start") LocalDateTime start,
-                         @Param("end") LocalDateTime end,
-                         Pageable pageable);
-
     @Query("SELECT b FROM Booking b WHERE b.courtId = :courtId " +
            "AND b.status IN :statuses " +
            "AND b.startTime < :dayEnd AND b.endTime > :dayStart " +
@@ -53,6 +35,15 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                    @Param("dayEnd") LocalDateTime dayEnd,
                                    @Param("statuses") List<Booking.BookingStatus> statuses);
 
+    @Query("SELECT b FROM Booking b WHERE b.courtId IN :courtIds " +
+           "AND b.status IN :statuses " +
+           "AND b.startTime < :end AND b.endTime > :start " +
+           "ORDER BY b.courtId ASC, b.startTime ASC")
+    List<Booking> findRangeOccupancy(@Param("courtIds") Collection<Long> courtIds,
+                                     @Param("start") LocalDateTime start,
+                                     @Param("end") LocalDateTime end,
+                                     @Param("statuses") List<Booking.BookingStatus> statuses);
+
     List<Booking> findTop10ByTeamIdAndMerchantIdOrderByStartTimeDesc(Long teamId, Long merchantId);
 
     @Query("SELECT b.operatorId, COUNT(b), COALESCE(SUM(b.amount), 0) FROM Booking b " +
@@ -99,8 +90,46 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                    "FROM bookings WHERE order_no LIKE CONCAT(:prefix, '%')", nativeQuery = true)
     Long findMaxSeqByPrefix(@Param("prefix") String prefix);
 
-    List<Booking> findByStatusAndEndTimeBefore(Booking.BookingStatus status, LocalDateTime endTime);
+    /** 过期候选：走 (status, end_time) 索引，返回 id, courtId, startTime, endTime, orderNo */
+    @Query("SELECT b.id, b.courtId, b.startTime, b.endTime, b.orderNo FROM Booking b " +
+           "WHERE b.status = :status AND b.endTime < :before ORDER BY b.endTime ASC")
+    List<Object[]> findExpireCandidates(@Param("status") Booking.BookingStatus status,
+                                        @Param("before") LocalDateTime before,
+                                        Pageable pageable);
+
+    @Query("SELECT b.id, b.courtId, b.startTime, b.endTime, b.orderNo FROM Booking b " +
+           "WHERE b.id IN :ids AND b.status = :status AND b.endTime <= :before")
+    List<Object[]> findExpireCandidatesIn(@Param("ids") Collection<Long> ids,
+                                          @Param("status") Booking.BookingStatus status,
+                                          @Param("before") LocalDateTime before);
+
+    /** 即将结束的订场：返回 id, endTime，供时间轮启动/定期补登 */
+    @Query("SELECT b.id, b.endTime FROM Booking b " +
+           "WHERE b.status = :status AND b.endTime >= :from AND b.endTime < :to ORDER BY b.endTime ASC")
+    List<Object[]> findEndingBetween(@Param("status") Booking.BookingStatus status,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     Pageable pageable);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.id IN :ids AND b.status = :status")
+    List<Long> findIdsInStatus(@Param("ids") Collection<Long> ids,
+                               @Param("status") Booking.BookingStatus status);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :to, b.updateTime = :now " +
+           "WHERE b.id IN :ids AND b.status = :from")
+    int transitStatus(@Param("ids") Collection<Long> ids,
+                      @Param("from") Booking.BookingStatus from,
+                      @Param("to") Booking.BookingStatus to,
+                      @Param("now") LocalDateTime now);
 
     List<Booking> findTop50ByMerchantIdAndCustomerUserIdAndSourceOrderByStartTimeDesc(
             Long merchantId, Long customerUserId, String source);
+
+    List<Booking> findByOrderNoInOrderByStartTimeAsc(Collection<String> orderNos);
+
+    @Query("SELECT b.venueId, COUNT(b) FROM Booking b WHERE b.startTime >= :since " +
+           "AND b.status IN :statuses GROUP BY b.venueId")
+    List<Object[]> countByVenueSince(@Param("since") LocalDateTime since,
+                                     @Param("statuses") Collection<Booking.BookingStatus> statuses);
 }
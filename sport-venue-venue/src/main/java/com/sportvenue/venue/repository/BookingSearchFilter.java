@@ -0,0 +1,25 @@
+package com.sportvenue.venue.repository;
+
+import com.sportvenue.venue.entity.Booking;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订场单检索条件：为空的字段不参与过滤，由 BookingSearchRepository 按需拼接谓词
+ */
+@Data
+@Builder
+public class BookingSearchFilter {
+    private Long merchantId;
+    private Long venueId;
+    private Long courtId;
+    private Booking.BookingStatus status;
+    private Booking.BookType bookType;
+    private Long operatorId;
+    /** 开始时间下界（含） */
+    private LocalDateTime start;
+    /** 开始时间上界（不含） */
+    private LocalDateTime end;
+}
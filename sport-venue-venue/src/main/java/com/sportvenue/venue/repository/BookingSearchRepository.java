@@ -0,0 +1,24 @@
+package com.sportvenue.venue.repository;
+
+import com.sportvenue.venue.entity.Booking;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 订场单动态检索：只拼接有值的条件，排序固定为 startTime DESC, id DESC，
+ * 使 (merchant_id, start_time, id) 索引可直接用于过滤和排序
+ */
+public interface BookingSearchRepository {
+
+    /** 偏移分页，供总数/跳页场景 */
+    Page<Booking> search(BookingSearchFilter filter, Pageable pageable);
+
+    /**
+     * 键集分页：返回排在 (afterStart, afterId) 之后的至多 limit 行，首页两者传 null。
+     * 翻页深度不影响扫描行数
+     */
+    List<Booking> searchAfter(BookingSearchFilter filter, LocalDateTime afterStart, Long afterId, int limit);
+}
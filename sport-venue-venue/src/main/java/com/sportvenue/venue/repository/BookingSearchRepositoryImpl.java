@@ -0,0 +1,84 @@
+package com.sportvenue.venue.repository;
+
+import com.sportvenue.venue.entity.Booking;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookingSearchRepositoryImpl implements BookingSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Booking> search(BookingSearchFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = cb.createQuery(Booking.class);
+        Root<Booking> b = query.from(Booking.class);
+        query.where(predicates(cb, b, filter).toArray(new Predicate[0]))
+                .orderBy(cb.desc(b.get("startTime")), cb.desc(b.get("id")));
+        List<Booking> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+            return new PageImpl<>(content, pageable, content.size());
+        }
+
+        CriteriaQuery<Long> count = cb.createQuery(Long.class);
+        Root<Booking> c = count.from(Booking.class);
+        count.select(cb.count(c)).where(predicates(cb, c, filter).toArray(new Predicate[0]));
+        return new PageImpl<>(content, pageable, entityManager.createQuery(count).getSingleResult());
+    }
+
+    @Override
+    public List<Booking> searchAfter(BookingSearchFilter filter, LocalDateTime afterStart, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = cb.createQuery(Booking.class);
+        Root<Booking> b = query.from(Booking.class);
+        List<Predicate> where = predicates(cb, b, filter);
+        if (afterStart != null && afterId != null) {
+            Path<LocalDateTime> startTime = b.get("startTime");
+            where.add(cb.or(
+                    cb.lessThan(startTime, afterStart),
+                    cb.and(cb.equal(startTime, afterStart), cb.lessThan(b.get("id"), afterId))));
+        }
+        query.where(where.toArray(new Predicate[0]))
+                .orderBy(cb.desc(b.get("startTime")), cb.desc(b.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private List<Predicate> predicates(CriteriaBuilder cb, Root<Booking> b, BookingSearchFilter f) {
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(b.get("merchantId"), f.getMerchantId()));
+        if (f.getVenueId() != null) {
+            where.add(cb.equal(b.get("venueId"), f.getVenueId()));
+        }
+        if (f.getCourtId() != null) {
+            where.add(cb.equal(b.get("courtId"), f.getCourtId()));
+        }
+        if (f.getStatus() != null) {
+            where.add(cb.equal(b.get("status"), f.getStatus()));
+        }
+        if (f.getBookType() != null) {
+            where.add(cb.equal(b.get("bookType"), f.getBookType()));
+        }
+        if (f.getOperatorId() != null) {
+            where.add(cb.equal(b.get("operatorId"), f.getOperatorId()));
+        }
+        if (f.getStart() != null) {
+            where.add(cb.greaterThanOrEqualTo(b.get("startTime"), f.getStart()));
+        }
+        if (f.getEnd() != null) {
+            where.add(cb.lessThan(b.get("startTime"), f.getEnd()));
+        }
+        return where;
+    }
+}
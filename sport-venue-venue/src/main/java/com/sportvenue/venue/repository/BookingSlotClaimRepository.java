@@ -0,0 +1,29 @@
+package com.sportvenue.venue.repository;
+
+import com.sportvenue.venue.entity.BookingSlotClaim;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface BookingSlotClaimRepository extends JpaRepository<BookingSlotClaim, Long> {
+
+    /** 已被占用时返回 0；对方事务未提交时在唯一键上等待其结束 */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO booking_slot_claims (court_id, slot_start, order_no, create_time) " +
+                   "VALUES (:courtId, :slotStart, :orderNo, NOW())", nativeQuery = true)
+    int claim(@Param("courtId") Long courtId,
+              @Param("slotStart") LocalDateTime slotStart,
+              @Param("orderNo") String orderNo);
+
+    @Modifying
+    @Query("DELETE FROM BookingSlotClaim c WHERE c.orderNo = :orderNo")
+    int deleteByOrderNo(@Param("orderNo") String orderNo);
+
+    @Modifying
+    @Query("DELETE FROM BookingSlotClaim c WHERE c.orderNo IN :orderNos")
+    int deleteByOrderNoIn(@Param("orderNos") Collection<String> orderNos);
+}
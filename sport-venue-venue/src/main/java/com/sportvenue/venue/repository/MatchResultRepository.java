@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +17,12 @@ public interface MatchResultRepository extends JpaRepository<MatchResult, Long>
 
     boolean existsByBookingId(Long bookingId);
 
+    /** 一页订场单对应的赛果：返回 bookingId, id */
+    @Query("SELECT m.bookingId, m.id FROM MatchResult m " +
+           "WHERE m.merchantId = :merchantId AND m.bookingId IN :bookingIds")
+    List<Object[]> findIdsByBookingIds(@Param("merchantId") Long merchantId,
+                                       @Param("bookingIds") Collection<Long> bookingIds);
+
     List<MatchResult> findByMerchantIdOrderByCreateTimeDesc(Long merchantId);
 
     @Query("SELECT m FROM MatchResult m WHERE m.merchantId = :merchantId " +
@@ -14,6 +14,8 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Optional<Product> findByIdAndMerchantIdAndDeletedFalse(Long id, Long merchantId);
 
+    List<Product> findByMerchantIdAndDeletedFalse(Long merchantId);
+
     @Query("SELECT p FROM Product p WHERE p.merchantId = :merchantId AND p.deleted = false " +
            "AND (:status IS NULL OR p.status = :status) " +
            "AND (:category IS NULL OR p.category = :category) " +
@@ -0,0 +1,180 @@
+package com.sportvenue.venue.repository;
+
+import com.sportvenue.venue.dto.sales.DailyProductStatDTO;
+import com.sportvenue.venue.entity.SalesOrder;
+import com.sportvenue.venue.entity.SalesOrderItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 销售日汇总表读写（sales_daily_rollup / sales_daily_product_rollup）。
+ * 收款时在同一事务内按 (商户, 日期, 场馆, 操作员, 支付方式 / 商品) 累加，
+ * 报表直接按唯一键前缀读取；rebuild 按订单明细整日重算，用于历史回填或修正。
+ * 表结构由 SalesDailyRollupRow / SalesDailyProductRollupRow 映射
+ */
+@Repository
+public class SalesDailyRollup {
+
+    private static final String UPSERT_ORDER =
+            "INSERT INTO sales_daily_rollup (merchant_id, sale_date, venue_id, operator_id, pay_method, " +
+            "order_count, total_amount, total_qty) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+            "total_amount = total_amount + VALUES(total_amount), total_qty = total_qty + VALUES(total_qty)";
+    private static final String UPSERT_PRODUCT =
+            "INSERT INTO sales_daily_product_rollup (merchant_id, sale_date, venue_id, operator_id, product_id, " +
+            "product_name, unit_price, unit, order_count, total_qty, total_amount) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE unit = VALUES(unit), order_count = order_count + VALUES(order_count), " +
+            "total_qty = total_qty + VALUES(total_qty), total_amount = total_amount + VALUES(total_amount)";
+    private static final String SELECT_SUMMARY =
+            "SELECT pay_method, SUM(order_count), SUM(total_amount), SUM(total_qty) FROM sales_daily_rollup " +
+            "WHERE merchant_id = ? AND sale_date = ? AND (? IS NULL OR venue_id = ?) " +
+            "AND (? IS NULL OR operator_id = ?) GROUP BY pay_method";
+    private static final String SELECT_PRODUCTS =
+            "SELECT product_id, product_name, unit_price, MAX(unit), SUM(order_count), SUM(total_qty), " +
+            "SUM(total_amount) FROM sales_daily_product_rollup " +
+            "WHERE merchant_id = ? AND sale_date = ? AND (? IS NULL OR venue_id = ?) " +
+            "AND (? IS NULL OR operator_id = ?) " +
+            "GROUP BY product_id, product_name, unit_price HAVING SUM(order_count) > 0 " +
+            "ORDER BY SUM(total_amount) DESC, product_id";
+    private static final String REBUILD_ORDERS =
+            "INSERT INTO sales_daily_rollup (merchant_id, sale_date, venue_id, operator_id, pay_method, " +
+            "order_count, total_amount, total_qty) " +
+            "SELECT merchant_id, DATE(paid_at), venue_id, IFNULL(operator_id, 0), IFNULL(pay_method, 'CASH'), " +
+            "COUNT(*), SUM(total_amount), SUM(total_qty) FROM sales_orders " +
+            "WHERE status = 'PAID' AND paid_at >= ? AND paid_at < ? " +
+            "GROUP BY merchant_id, DATE(paid_at), venue_id, IFNULL(operator_id, 0), IFNULL(pay_method, 'CASH')";
+    private static final String REBUILD_PRODUCTS =
+            "INSERT INTO sales_daily_product_rollup (merchant_id, sale_date, venue_id, operator_id, product_id, " +
+            "product_name, unit_price, unit, order_count, total_qty, total_amount) " +
+            "SELECT o.merchant_id, DATE(o.paid_at), o.venue_id, IFNULL(o.operator_id, 0), IFNULL(i.product_id, 0), " +
+            "i.product_name, i.unit_price, MAX(i.unit), COUNT(DISTINCT o.id), SUM(i.quantity), SUM(i.subtotal) " +
+            "FROM sales_orders o JOIN sales_order_items i ON i.order_id = o.id " +
+            "WHERE o.status = 'PAID' AND o.paid_at >= ? AND o.paid_at < ? " +
+            "GROUP BY o.merchant_id, DATE(o.paid_at), o.venue_id, IFNULL(o.operator_id, 0), " +
+            "IFNULL(i.product_id, 0), i.product_name, i.unit_price";
+    private static final String SELECT_MISSING_DAYS =
+            "SELECT d FROM (SELECT DISTINCT DATE(paid_at) AS d FROM sales_orders " +
+            "WHERE status = 'PAID' AND paid_at < ?) paid " +
+            "WHERE NOT EXISTS (SELECT 1 FROM sales_daily_rollup r WHERE r.sale_date = paid.d) ORDER BY d";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 把一张已支付订单计入汇总，sign 为 1 表示收款、-1 表示冲回；须在改订单状态的同一事务内调用
+     */
+    public void add(SalesOrder order, List<SalesOrderItem> items, int sign) {
+        Date day = Date.valueOf(order.getPaidAt().toLocalDate());
+        long operatorId = order.getOperatorId() == null ? 0 : order.getOperatorId();
+        String payMethod = (order.getPayMethod() == null ? SalesOrder.PayMethod.CASH : order.getPayMethod()).name();
+        BigDecimal signum = BigDecimal.valueOf(sign);
+        jdbcTemplate.update(UPSERT_ORDER, order.getMerchantId(), day, order.getVenueId(), operatorId, payMethod,
+                sign, order.getTotalAmount().multiply(signum), order.getTotalQty() * sign);
+
+        // 同一订单内相同商品键合并为一行，并按键排序写入，多个事务加锁顺序一致
+        Map<ProductKey, SalesOrderItem> lines = new LinkedHashMap<>();
+        for (SalesOrderItem item : items) {
+            lines.merge(new ProductKey(item.getProductId() == null ? 0 : item.getProductId(), item.getProductName(),
+                    item.getUnitPrice()), item, SalesDailyRollup::mergeLine);
+        }
+        List<Map.Entry<ProductKey, SalesOrderItem>> sorted = new ArrayList<>(lines.entrySet());
+        sorted.sort(Map.Entry.comparingByKey(ProductKey.ORDER));
+        if (sorted.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_PRODUCT, sorted, sorted.size(), (ps, e) -> {
+            ps.setLong(1, order.getMerchantId());
+            ps.setDate(2, day);
+            ps.setLong(3, order.getVenueId());
+            ps.setLong(4, operatorId);
+            ps.setLong(5, e.getKey().productId());
+            ps.setString(6, e.getKey().name());
+            ps.setBigDecimal(7, e.getKey().unitPrice());
+            ps.setString(8, e.getValue().getUnit());
+            ps.setInt(9, sign);
+            ps.setInt(10, e.getValue().getQuantity() * sign);
+            ps.setBigDecimal(11, e.getValue().getSubtotal().multiply(signum));
+        });
+    }
+
+    /** 按支付方式汇总某日数据，venueId、operatorId 为空表示不限 */
+    public List<MethodTotal> summary(Long merchantId, Long venueId, Long operatorId, LocalDate day) {
+        return jdbcTemplate.query(SELECT_SUMMARY, (rs, i) -> new MethodTotal(
+                        rs.getString(1), rs.getInt(2), rs.getBigDecimal(3), rs.getInt(4)),
+                merchantId, Date.valueOf(day), venueId, venueId, operatorId, operatorId);
+    }
+
+    /** 某日按商品汇总，按金额倒序 */
+    public List<DailyProductStatDTO> products(Long merchantId, Long venueId, Long operatorId, LocalDate day) {
+        return jdbcTemplate.query(SELECT_PRODUCTS, (rs, i) -> {
+            long productId = rs.getLong(1);
+            return DailyProductStatDTO.builder()
+                    .productId(productId == 0 ? null : productId)
+                    .productName(rs.getString(2))
+                    .unitPrice(rs.getBigDecimal(3))
+                    .unit(rs.getString(4))
+                    .orderCount(rs.getInt(5))
+                    .totalQty(rs.getInt(6))
+                    .totalAmount(rs.getBigDecimal(7))
+                    .build();
+        }, merchantId, Date.valueOf(day), venueId, venueId, operatorId, operatorId);
+    }
+
+    /** 按订单明细重算某日全部商户的汇总，返回写入的汇总行数；须在事务内调用 */
+    public int rebuild(LocalDate day) {
+        Date date = Date.valueOf(day);
+        Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        jdbcTemplate.update("DELETE FROM sales_daily_rollup WHERE sale_date = ?", date);
+        jdbcTemplate.update("DELETE FROM sales_daily_product_rollup WHERE sale_date = ?", date);
+        return jdbcTemplate.update(REBUILD_ORDERS, start, end) + jdbcTemplate.update(REBUILD_PRODUCTS, start, end);
+    }
+
+    /** before 之前有已支付订单、却没有任何汇总行的日期，按日期升序 */
+    public List<LocalDate> missingDays(LocalDate before) {
+        return jdbcTemplate.query(SELECT_MISSING_DAYS, (rs, i) -> rs.getDate(1).toLocalDate(),
+                Timestamp.valueOf(before.atStartOfDay()));
+    }
+
+    private static SalesOrderItem mergeLine(SalesOrderItem a, SalesOrderItem b) {
+        SalesOrderItem merged = new SalesOrderItem();
+        merged.setUnit(a.getUnit());
+        merged.setQuantity(a.getQuantity() + b.getQuantity());
+        merged.setSubtotal(a.getSubtotal().add(b.getSubtotal()));
+        return merged;
+    }
+
+    public record MethodTotal(String payMethod, int orderCount, BigDecimal amount, int qty) {
+    }
+
+    private record ProductKey(long productId, String name, BigDecimal unitPrice) {
+
+        static final Comparator<ProductKey> ORDER = Comparator.comparingLong(ProductKey::productId)
+                .thenComparing(ProductKey::name, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(ProductKey::unitPrice);
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ProductKey k && productId == k.productId && Objects.equals(name, k.name)
+                    && unitPrice.compareTo(k.unitPrice) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, name, unitPrice.stripTrailingZeros());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.sportvenue.venue.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多日销售报表查询：MySQL 流式结果集（fetchSize = Integer.MIN_VALUE）逐行回调，
+ * 一年的数据也不整体读入内存。operatorId 为空表示不限操作员
+ */
+@Repository
+public class SalesReportQuery {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 按日期、场馆、支付方式读取日汇总，按 sale_date, venue_id 有序，
+     * 列：sale_date, venue_id, pay_method, order_count, total_qty, total_amount
+     */
+    public void streamDaily(Long merchantId, Long venueId, Long operatorId, LocalDate from, LocalDate to,
+                            RowCallbackHandler handler) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT sale_date, venue_id, pay_method, SUM(order_count) AS order_count, " +
+                "SUM(total_qty) AS total_qty, SUM(total_amount) AS total_amount FROM sales_daily_rollup " +
+                "WHERE merchant_id = ? AND sale_date >= ? AND sale_date <= ?");
+        List<Object> args = new ArrayList<>(List.of(merchantId, Date.valueOf(from), Date.valueOf(to)));
+        filter(sql, args, "", venueId, operatorId);
+        sql.append(" GROUP BY sale_date, venue_id, pay_method ORDER BY sale_date, venue_id");
+        stream(sql.toString(), args, handler);
+    }
+
+    /**
+     * 区间内按商品汇总，按金额倒序，
+     * 列：product_id, product_name, unit, unit_price, order_count, total_qty, total_amount
+     */
+    public void streamProducts(Long merchantId, Long venueId, Long operatorId, LocalDate from, LocalDate to,
+                               RowCallbackHandler handler) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT product_id, product_name, MAX(unit) AS unit, unit_price, SUM(order_count) AS order_count, " +
+                "SUM(total_qty) AS total_qty, SUM(total_amount) AS total_amount FROM sales_daily_product_rollup " +
+                "WHERE merchant_id = ? AND sale_date >= ? AND sale_date <= ?");
+        List<Object> args = new ArrayList<>(List.of(merchantId, Date.valueOf(from), Date.valueOf(to)));
+        filter(sql, args, "", venueId, operatorId);
+        sql.append(" GROUP BY product_id, product_name, unit_price HAVING SUM(order_count) > 0")
+                .append(" ORDER BY SUM(total_amount) DESC, product_id");
+        stream(sql.toString(), args, handler);
+    }
+
+    /**
+     * 已支付订单的明细行，沿 (merchant_id, paid_at) 索引按支付时间有序，
+     * 列：order_no, paid_at, venue_id, operator_name, pay_method, product_name, unit, unit_price, quantity, subtotal
+     */
+    public void streamItems(Long merchantId, Long venueId, Long operatorId, LocalDate from, LocalDate to,
+                            RowCallbackHandler handler) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT o.order_no, o.paid_at, o.venue_id, o.operator_name, o.pay_method, i.product_name, i.unit, " +
+                "i.unit_price, i.quantity, i.subtotal FROM sales_orders o JOIN sales_order_items i ON i.order_id = o.id " +
+                "WHERE o.merchant_id = ? AND o.status = 'PAID' AND o.paid_at >= ? AND o.paid_at < ?");
+        List<Object> args = new ArrayList<>(List.of(merchantId,
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay())));
+        filter(sql, args, "o.", venueId, operatorId);
+        sql.append(" ORDER BY o.paid_at, o.id");
+        stream(sql.toString(), args, handler);
+    }
+
+    private static void filter(StringBuilder sql, List<Object> args, String alias, Long venueId, Long operatorId) {
+        if (venueId != null) {
+            sql.append(" AND ").append(alias).append("venue_id = ?");
+            args.add(venueId);
+        }
+        if (operatorId != null) {
+            sql.append(" AND ").append(alias).append("operator_id = ?");
+            args.add(operatorId);
+        }
+    }
+
+    private void stream(String sql, List<Object> args, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, handler);
+    }
+}
@@ -0,0 +1,71 @@
+package com.sportvenue.venue.repository;
+
+import com.sportvenue.venue.entity.Venue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 场馆批量写入：绕过 JPA 逐行 merge，直接走 JDBC batch（配合 rewriteBatchedStatements=true）
+ */
+@Repository
+public class VenueBatchWriter {
+
+    private static final String UPDATE_OCCUPANCY = "UPDATE venues SET current_occupancy = ? WHERE id = ?";
+    private static final String INSERT_VENUE =
+            "INSERT INTO venues (name, description, type, space_type, charge_type, merchant_id, merchant_name, " +
+            "address, longitude, latitude, phone, open_time, close_time, status, capacity, current_occupancy, area, " +
+            "facilities, images, tags, rating, rating_sum, rating_count, reservation_enabled, check_in_enabled, " +
+            "points_enabled, create_time, update_time, create_by, update_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?, ?, 0, 0, 0, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** 回写场馆当前人数，key 为场馆 ID */
+    public void updateOccupancy(Map<Long, Integer> occupancy, int batchSize) {
+        jdbcTemplate.batchUpdate(UPDATE_OCCUPANCY, new ArrayList<>(occupancy.entrySet()), batchSize, (ps, e) -> {
+            ps.setInt(1, e.getValue());
+            ps.setLong(2, e.getKey());
+        });
+    }
+
+    /** 批量新建场馆，人数与评分从 0 开始 */
+    public void insertVenues(List<Venue> venues, int batchSize) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_VENUE, venues, batchSize, (ps, v) -> {
+            ps.setString(1, v.getName());
+            ps.setString(2, v.getDescription());
+            ps.setString(3, v.getType().name());
+            ps.setString(4, v.getSpaceType().name());
+            ps.setString(5, v.getChargeType().name());
+            ps.setLong(6, v.getMerchantId());
+            ps.setString(7, v.getMerchantName());
+            ps.setString(8, v.getAddress());
+            ps.setBigDecimal(9, v.getLongitude());
+            ps.setBigDecimal(10, v.getLatitude());
+            ps.setString(11, v.getPhone());
+            ps.setString(12, v.getOpenTime());
+            ps.setString(13, v.getCloseTime());
+            ps.setString(14, (v.getStatus() == null ? Venue.VenueStatus.ACTIVE : v.getStatus()).name());
+            ps.setObject(15, v.getCapacity());
+            ps.setBigDecimal(16, v.getArea());
+            ps.setString(17, v.getFacilities());
+            ps.setString(18, v.getImages());
+            ps.setString(19, v.getTags());
+            ps.setBoolean(20, !Boolean.FALSE.equals(v.getReservationEnabled()));
+            ps.setBoolean(21, !Boolean.FALSE.equals(v.getCheckInEnabled()));
+            ps.setBoolean(22, !Boolean.FALSE.equals(v.getPointsEnabled()));
+            ps.setTimestamp(23, now);
+            ps.setTimestamp(24, now);
+            ps.setObject(25, v.getCreateBy());
+            ps.setObject(26, v.getUpdateBy());
+        });
+    }
+}
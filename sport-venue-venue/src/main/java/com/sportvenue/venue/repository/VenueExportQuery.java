@@ -0,0 +1,117 @@
+package com.sportvenue.venue.repository;
+
+import com.sportvenue.venue.dto.VenueQueryDTO;
+import com.sportvenue.venue.entity.Venue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 场馆导出：MySQL 流式结果集（fetchSize = Integer.MIN_VALUE）逐行回调，不整体读入内存也不进持久化上下文。
+ * 选取 venues 的全部列，JSON 导出序列化整个 Venue，缺列会输出为 null
+ */
+@Repository
+public class VenueExportQuery {
+
+    private static final String SELECT =
+            "SELECT id, name, description, type, space_type, charge_type, merchant_id, merchant_name, address, " +
+            "longitude, latitude, phone, open_time, close_time, status, capacity, current_occupancy, area, " +
+            "facilities, images, tags, rating, rating_sum, rating_count, reservation_enabled, check_in_enabled, " +
+            "points_enabled, create_time, update_time, create_by, update_by FROM venues";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** 按商户、类型、状态、空间类型、收费类型过滤，按 ID 升序逐个回调 */
+    public void stream(VenueQueryDTO query, Consumer<Venue> consumer) {
+        StringBuilder sql = new StringBuilder(SELECT).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (query.getMerchantId() != null) {
+            sql.append(" AND merchant_id = ?");
+            args.add(query.getMerchantId());
+        }
+        if (query.getType() != null) {
+            sql.append(" AND type = ?");
+            args.add(query.getType().name());
+        }
+        if (query.getStatus() != null) {
+            sql.append(" AND status = ?");
+            args.add(query.getStatus().name());
+        }
+        if (query.getSpaceType() != null) {
+            sql.append(" AND space_type = ?");
+            args.add(query.getSpaceType().name());
+        }
+        if (query.getChargeType() != null) {
+            sql.append(" AND charge_type = ?");
+            args.add(query.getChargeType().name());
+        }
+        sql.append(" ORDER BY id");
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(map(rs)));
+    }
+
+    private static Venue map(ResultSet rs) throws SQLException {
+        Venue v = new Venue();
+        v.setId(rs.getLong("id"));
+        v.setName(rs.getString("name"));
+        v.setDescription(rs.getString("description"));
+        v.setType(enumOf(Venue.VenueType.class, rs.getString("type")));
+        v.setSpaceType(enumOf(Venue.VenueSpaceType.class, rs.getString("space_type")));
+        v.setChargeType(enumOf(Venue.VenueChargeType.class, rs.getString("charge_type")));
+        v.setMerchantId(rs.getLong("merchant_id"));
+        v.setMerchantName(rs.getString("merchant_name"));
+        v.setAddress(rs.getString("address"));
+        v.setLongitude(rs.getBigDecimal("longitude"));
+        v.setLatitude(rs.getBigDecimal("latitude"));
+        v.setPhone(rs.getString("phone"));
+        v.setOpenTime(rs.getString("open_time"));
+        v.setCloseTime(rs.getString("close_time"));
+        v.setStatus(enumOf(Venue.VenueStatus.class, rs.getString("status")));
+        v.setCapacity(rs.getObject("capacity", Integer.class));
+        v.setCurrentOccupancy(rs.getObject("current_occupancy", Integer.class));
+        v.setArea(rs.getBigDecimal("area"));
+        v.setFacilities(rs.getString("facilities"));
+        v.setImages(rs.getString("images"));
+        v.setTags(rs.getString("tags"));
+        v.setRating(rs.getBigDecimal("rating"));
+        v.setRatingSum(rs.getBigDecimal("rating_sum"));
+        v.setRatingCount(rs.getObject("rating_count", Integer.class));
+        v.setReservationEnabled(rs.getObject("reservation_enabled", Boolean.class));
+        v.setCheckInEnabled(rs.getObject("check_in_enabled", Boolean.class));
+        v.setPointsEnabled(rs.getObject("points_enabled", Boolean.class));
+        Timestamp created = rs.getTimestamp("create_time");
+        v.setCreateTime(created == null ? null : created.toLocalDateTime());
+        Timestamp updated = rs.getTimestamp("update_time");
+        v.setUpdateTime(updated == null ? null : updated.toLocalDateTime());
+        v.setCreateBy(rs.getObject("create_by", Long.class));
+        v.setUpdateBy(rs.getObject("update_by", Long.class));
+        return v;
+    }
+
+    /** 历史数据里可能有非法枚举值，导出时置空而不是中断 */
+    private static <E extends Enum<E>> E enumOf(Class<E> type, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
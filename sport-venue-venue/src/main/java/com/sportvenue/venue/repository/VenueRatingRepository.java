@@ -0,0 +1,7 @@
+package com.sportvenue.venue.repository;
+
+import com.sportvenue.venue.entity.VenueRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface VenueRatingRepository extends JpaRepository<VenueRating, Long> {
+}
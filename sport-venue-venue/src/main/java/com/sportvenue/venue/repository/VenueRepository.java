@@ -4,6 +4,8 @@ import com.sportvenue.venue.entity.Venue;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,7 +19,7 @@ import java.util.Optional;
  * 支持多商户、多类型场馆查询
  */
 @Repository
-public interface VenueRepository extends JpaRepository<Venue, Long> {
+public interface VenueRepository extends JpaRepository<Venue, Long>, JpaSpecificationExecutor<Venue> {
     
     /**
      * 根据商户ID查询场馆列表
@@ -64,16 +66,6 @@ public interface VenueRepository extends JpaRepository<Venue, Long> {
      */
     List<Venue> findByAddressContaining(String address);
     
-    /**
-     * 根据地理位置范围查询（经纬度范围）
-     */
-    @Query("SELECT v FROM Venue v WHERE v.longitude BETWEEN :minLng AND :maxLng " +
-           "AND v.latitude BETWEEN :minLat AND :maxLat AND v.status = 'ACTIVE'")
-    List<Venue> findByLocationRange(@Param("minLng") BigDecimal minLng, 
-                                   @Param("maxLng") BigDecimal maxLng,
-                                   @Param("minLat") BigDecimal minLat, 
-                                   @Param("maxLat") BigDecimal maxLat);
-    
     /**
      * 根据评分范围查询
      */
@@ -120,6 +112,12 @@ public interface VenueRepository extends JpaRepository<Venue, Long> {
      */
     Optional<Venue> findByNameAndMerchantId(String name, Long merchantId);
     
+    /**
+     * 商户下全部场馆名称（批量导入查重）
+     */
+    @Query("SELECT v.name FROM Venue v WHERE v.merchantId = :merchantId")
+    List<String> findNamesByMerchantId(@Param("merchantId") Long merchantId);
+    
     /**
      * 统计商户的场馆数量
      */
@@ -155,27 +153,53 @@ public interface VenueRepository extends JpaRepository<Venue, Long> {
                                  Pageable pageable);
 
     /**
-     * 根据状态和评分排序查询场馆
+     * 排行榜重建用：id、评分、评分人数
      */
-    List<Venue> findByStatusOrderByRatingDescRatingCountDesc(Venue.VenueStatus status);
+    @Query("SELECT v.id, v.rating, v.ratingCount FROM Venue v WHERE v.status = :status")
+    List<Object[]> findRankingRows(@Param("status") Venue.VenueStatus status);
 
     /**
-     * 根据名称包含和状态查询场馆
+     * 库内最近一次回写的实时人数，Redis 计数缺失时作为起点
      */
-    List<Venue> findByNameContainingAndStatus(String name, Venue.VenueStatus status);
+    @Query("SELECT v.currentOccupancy FROM Venue v WHERE v.id = :id")
+    Integer findCurrentOccupancy(@Param("id") Long id);
 
     /**
-     * 根据状态和距离排序查询场馆（简化版本）
+     * 累加一条评分并同步均值；MySQL 单表 UPDATE 按从左到右赋值，rating 取的是累加后的值
      */
-    @Query("SELECT v FROM Venue v WHERE v.status = :status ORDER BY v.rating DESC")
-    List<Venue> findByStatusOrderByRatingDesc(@Param("status") Venue.VenueStatus status);
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE venues SET rating_sum = IFNULL(rating_sum, 0) + :score, rating_count = IFNULL(rating_count, 0) + 1, " +
+                   "rating = ROUND(rating_sum / rating_count, 2) WHERE id = :id", nativeQuery = true)
+    int addRating(@Param("id") Long id, @Param("score") BigDecimal score);
 
     /**
-     * 根据状态和距离排序查询场馆（带位置参数）
+     * 存量评分回填（一）：rating_sum 为空说明该场馆的评分还没迁移到明细，按原均值和人数记一行加权汇总
      */
-    @Query("SELECT v FROM Venue v WHERE v.status = :status " +
-           "ORDER BY SQRT(POWER(v.longitude - :longitude, 2) + POWER(v.latitude - :latitude, 2)) ASC")
-    List<Venue> findByStatusOrderByDistanceAsc(@Param("status") Venue.VenueStatus status,
-                                              @Param("longitude") BigDecimal longitude,
-                                              @Param("latitude") BigDecimal latitude);
-} 
\ No newline at end of file
+    @Modifying(clearAutomatically = true)
+    @Query(value = "INSERT INTO venue_ratings (venue_id, score, weight, create_time) " +
+                   "SELECT v.id, v.rating, v.rating_count, NOW() FROM venues v " +
+                   "WHERE v.rating_sum IS NULL AND v.rating_count > 0 AND v.rating IS NOT NULL " +
+                   "AND NOT EXISTS (SELECT 1 FROM venue_ratings r WHERE r.venue_id = v.id)", nativeQuery = true)
+    int seedLegacyRatings();
+
+    /**
+     * 存量评分回填（二）：补齐 rating_sum = rating * rating_count，须在 seedLegacyRatings 之后、同一事务内执行
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE venues SET rating_count = IFNULL(rating_count, 0), " +
+                   "rating_sum = IFNULL(rating, 0) * IFNULL(rating_count, 0) WHERE rating_sum IS NULL", nativeQuery = true)
+    int backfillRatingSum();
+
+    /**
+     * 按评分明细重算 [fromId, toId] 区间内场馆的评分汇总，只更新有偏差的行，返回更新行数
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE venues v JOIN (SELECT venue_id, SUM(score * weight) s, SUM(weight) c FROM venue_ratings " +
+                   "WHERE venue_id BETWEEN :fromId AND :toId GROUP BY venue_id) r ON r.venue_id = v.id " +
+                   "SET v.rating_sum = r.s, v.rating_count = r.c, v.rating = IF(r.c > 0, ROUND(r.s / r.c, 2), 0) " +
+                   "WHERE NOT (v.rating_sum <=> r.s) OR NOT (v.rating_count <=> r.c)", nativeQuery = true)
+    int recomputeRatings(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("SELECT MAX(v.id) FROM Venue v")
+    Long findMaxId();
+}
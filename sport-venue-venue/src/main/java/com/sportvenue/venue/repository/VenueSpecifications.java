@@ -0,0 +1,78 @@
+package com.sportvenue.venue.repository;
+
+import com.sportvenue.venue.dto.VenueQueryDTO;
+import com.sportvenue.venue.entity.Venue;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 场馆列表查询条件：VenueQueryDTO 中有值的字段组合成一条 WHERE，分页与计数都在库内完成
+ */
+public final class VenueSpecifications {
+
+    private VenueSpecifications() {
+    }
+
+    public static Specification<Venue> of(VenueQueryDTO q) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (q.getMerchantId() != null) {
+                predicates.add(cb.equal(root.get("merchantId"), q.getMerchantId()));
+            }
+            if (q.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), q.getStatus()));
+            } else if (q.getMerchantId() == null && q.getType() == null && q.getSpaceType() == null
+                    && q.getChargeType() == null) {
+                // 与原有语义一致：按商户、类型、场地类型、收费方式筛选时不限状态，都未指定时只查营业中的场馆
+                predicates.add(cb.equal(root.get("status"), Venue.VenueStatus.ACTIVE));
+            }
+            if (q.getType() != null) {
+                predicates.add(cb.equal(root.get("type"), q.getType()));
+            }
+            if (q.getSpaceType() != null) {
+                predicates.add(cb.equal(root.get("spaceType"), q.getSpaceType()));
+            }
+            if (q.getChargeType() != null) {
+                predicates.add(cb.equal(root.get("chargeType"), q.getChargeType()));
+            }
+            if (StringUtils.hasText(q.getName())) {
+                predicates.add(cb.like(root.get("name"), "%" + q.getName().trim() + "%"));
+            }
+            if (StringUtils.hasText(q.getAddress())) {
+                predicates.add(cb.like(root.get("address"), "%" + q.getAddress().trim() + "%"));
+            }
+            if (StringUtils.hasText(q.getFacilities())) {
+                predicates.add(cb.like(root.get("facilities"), "%" + q.getFacilities().trim() + "%"));
+            }
+            if (StringUtils.hasText(q.getTags())) {
+                predicates.add(cb.like(root.get("tags"), "%" + q.getTags().trim() + "%"));
+            }
+            if (q.getMinRating() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("rating"), q.getMinRating()));
+            }
+            if (q.getMaxRating() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("rating"), q.getMaxRating()));
+            }
+            if (q.getMinCapacity() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("capacity"), q.getMinCapacity()));
+            }
+            if (q.getMaxCapacity() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("capacity"), q.getMaxCapacity()));
+            }
+            if (q.getReservationEnabled() != null) {
+                predicates.add(cb.equal(root.get("reservationEnabled"), q.getReservationEnabled()));
+            }
+            if (q.getCheckInEnabled() != null) {
+                predicates.add(cb.equal(root.get("checkInEnabled"), q.getCheckInEnabled()));
+            }
+            if (q.getPointsEnabled() != null) {
+                predicates.add(cb.equal(root.get("pointsEnabled"), q.getPointsEnabled()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
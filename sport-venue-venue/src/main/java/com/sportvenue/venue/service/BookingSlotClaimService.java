@@ -0,0 +1,144 @@
+package com.sportvenue.venue.service;
+
+import com.sportvenue.venue.entity.Booking;
+import com.sportvenue.venue.repository.BookingBatchWriter;
+import com.sportvenue.venue.repository.BookingSlotClaimRepository;
+import com.sportvenue.venue.util.SlotGrid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * 订场准入：先在内存位图上 CAS 预占（同实例并发直接判负），
+ * 再逐个半小时段写入 booking_slot_claims，由 (court_id, slot_start) 唯一键裁决跨实例并发。
+ * 只锁涉及的片场时段，不同片场之间互不阻塞。须在建单事务内调用
+ */
+@Slf4j
+@Service
+public class BookingSlotClaimService {
+
+    @Autowired
+    private BookingSlotClaimRepository claimRepository;
+    @Autowired
+    private CourtOccupancyIndex occupancyIndex;
+    @Autowired
+    private BookingBatchWriter batchWriter;
+
+    @Value("${saas.booking.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 启动时为未结束的占用中订场单补齐占位。booking_slot_claims 可能由 ddl-auto 建成空表而未执行 V7 回填，
+     * 此时存量订场单的时段在库内没有占位，跨实例并发建单可能重复订出；INSERT IGNORE 可重复执行
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillClaims() {
+        int inserted = batchWriter.backfillClaims(LocalDateTime.now());
+        if (inserted > 0) {
+            log.warn("已为存量订场单补齐 {} 个时段占位", inserted);
+        }
+    }
+
+    /**
+     * 为尚未保存的订场单占位，成功后调用方再保存订场单；返回 false 表示时段已被占用。
+     * 事务回滚时内存预占自动撤销，库内占位随事务回滚
+     */
+    public boolean claim(Booking booking) {
+        Long courtId = booking.getCourtId();
+        LocalDateTime start = booking.getStartTime();
+        LocalDateTime end = booking.getEndTime();
+        if (!occupancyIndex.tryReserve(courtId, start, end)) {
+            return false;
+        }
+        try {
+            for (LocalDateTime slot = slotFloor(start); slot.isBefore(end); slot = slot.plusMinutes(SlotGrid.SLOT_MINUTES)) {
+                if (claimRepository.claim(courtId, slot, booking.getOrderNo()) == 0) {
+                    claimRepository.deleteByOrderNo(booking.getOrderNo());
+                    occupancyIndex.release(courtId, start, end);
+                    log.info("片场 {} 时段 {} 已被其他订单占用", courtId, slot);
+                    return false;
+                }
+            }
+        } catch (RuntimeException e) {
+            occupancyIndex.release(courtId, start, end);
+            throw e;
+        }
+        occupancyIndex.releaseOnRollback(courtId, start, end);
+        return true;
+    }
+
+    /**
+     * 批量占位（周期订场）：逐场 CAS 预占后把全部半小时段一次 batch 写入，
+     * 再按单号统计实际写入数判定每场是否占全；未占全的场次撤销占位。
+     * 返回占位失败的单号，其余场次的预占在事务回滚时自动撤销
+     */
+    public Set<String> claimAll(List<Booking> bookings) {
+        Set<String> failed = new HashSet<>();
+        List<Booking> reserved = new ArrayList<>(bookings.size());
+        for (Booking b : bookings) {
+            if (occupancyIndex.tryReserve(b.getCourtId(), b.getStartTime(), b.getEndTime())) {
+                reserved.add(b);
+            } else {
+                failed.add(b.getOrderNo());
+            }
+        }
+        if (reserved.isEmpty()) {
+            return failed;
+        }
+        Map<String, Long> expected = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (Booking b : reserved) {
+            long n = 0;
+            for (LocalDateTime slot = slotFloor(b.getStartTime()); slot.isBefore(b.getEndTime());
+                 slot = slot.plusMinutes(SlotGrid.SLOT_MINUTES)) {
+                rows.add(new Object[]{b.getCourtId(), slot, b.getOrderNo()});
+                n++;
+            }
+            expected.put(b.getOrderNo(), n);
+        }
+        Map<String, Long> actual = new HashMap<>();
+        try {
+            // rewriteBatchedStatements 下多值 INSERT IGNORE 的逐行计数不可靠，按单号回查
+            batchWriter.insertClaims(rows, batchSize);
+            for (Object[] r : batchWriter.countClaims(expected.keySet())) {
+                actual.put((String) r[0], (Long) r[1]);
+            }
+        } catch (RuntimeException e) {
+            reserved.forEach(b -> occupancyIndex.release(b.getCourtId(), b.getStartTime(), b.getEndTime()));
+            throw e;
+        }
+        List<String> partial = new ArrayList<>();
+        for (Booking b : reserved) {
+            if (expected.get(b.getOrderNo()).equals(actual.getOrDefault(b.getOrderNo(), 0L))) {
+                occupancyIndex.releaseOnRollback(b.getCourtId(), b.getStartTime(), b.getEndTime());
+                continue;
+            }
+            partial.add(b.getOrderNo());
+            failed.add(b.getOrderNo());
+            occupancyIndex.release(b.getCourtId(), b.getStartTime(), b.getEndTime());
+        }
+        if (!partial.isEmpty()) {
+            claimRepository.deleteByOrderNoIn(partial);
+            log.info("周期订场 {} 场被其他订单抢占", partial.size());
+        }
+        return failed;
+    }
+
+    /** 订场单取消/过期：释放库内占位，事务提交后释放内存位图 */
+    public void release(Booking booking) {
+        claimRepository.deleteByOrderNo(booking.getOrderNo());
+        occupancyIndex.releaseAfterCommit(booking);
+    }
+
+    private LocalDateTime slotFloor(LocalDateTime t) {
+        LocalDateTime minute = t.truncatedTo(ChronoUnit.MINUTES);
+        return minute.minusMinutes(minute.getMinute() % SlotGrid.SLOT_MINUTES);
+    }
+}
@@ -2,10 +2,13 @@ package com.sportvenue.venue.service;
 
 import com.sportvenue.common.exception.BusinessException;
 import com.sportvenue.venue.entity.*;
+import com.sportvenue.venue.event.BookingCreatedEvent;
 import com.sportvenue.venue.repository.*;
 import com.sportvenue.venue.util.SecurityUtils;
+import com.sportvenue.venue.util.SlotGrid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -13,7 +16,6 @@ import org.springframework.util.StringUtils;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -23,8 +25,7 @@ import java.util.stream.Collectors;
 public class CBookingService {
 
     private static final DateTimeFormatter DT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final List<Booking.BookingStatus> OCCUPYING =
-            Arrays.asList(Booking.BookingStatus.BOOKED, Booking.BookingStatus.COMPLETED);
+    private static final int MAX_AVAILABILITY_DAYS = 14;
 
     @Autowired
     private VenueRepository venueRepository;
@@ -36,6 +37,12 @@ public class CBookingService {
     private MerchantFeatureService featureService;
     @Autowired
     private WalletService walletService;
+    @Autowired
+    private CourtOccupancyIndex occupancyIndex;
+    @Autowired
+    private BookingSlotClaimService slotClaimService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     public List<Map<String, Object>> listVenues() {
         Long merchantId = SecurityUtils.requireCustomerMerchantId();
@@ -74,22 +81,16 @@ public class CBookingService {
         Court court = courtRepository.findByIdAndMerchantId(courtId, merchantId)
                 .orElseThrow(() -> new BusinessException(404, "片场不存在"));
         LocalDate day = LocalDate.parse(date);
-        LocalDateTime dayStart = day.atStartOfDay();
-        LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
-        List<Booking> bookings = bookingRepository.findDayOccupancy(courtId, dayStart, dayEnd, OCCUPYING);
-        List<Map<String, Object>> slots = new ArrayList<>();
-        for (int hour = 0; hour < 24; hour++) {
-            for (int minute : new int[]{0, 30}) {
-                LocalDateTime start = LocalDateTime.of(day, LocalTime.of(hour, minute));
-                LocalDateTime end = start.plusMinutes(30);
-                boolean occupied = bookings.stream()
-                        .anyMatch(b -> b.getStartTime().isBefore(end) && b.getEndTime().isAfter(start));
-                Map<String, Object> s = new LinkedHashMap<>();
-                s.put("startTime", start.format(DT));
-                s.put("endTime", end.format(DT));
-                s.put("occupied", occupied);
-                slots.add(s);
-            }
+        long bits = occupancyIndex.dayBits(courtId, day);
+        String dayStr = day.toString();
+        String nextDayStr = day.plusDays(1).toString();
+        List<Map<String, Object>> slots = new ArrayList<>(SlotGrid.SLOTS_PER_DAY);
+        for (int i = 0; i < SlotGrid.SLOTS_PER_DAY; i++) {
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("startTime", SlotGrid.startTime(dayStr, i));
+            s.put("endTime", SlotGrid.endTime(dayStr, nextDayStr, i));
+            s.put("occupied", (bits >>> i & 1L) != 0);
+            slots.add(s);
         }
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("courtId", court.getId());
@@ -99,6 +100,49 @@ public class CBookingService {
         return result;
     }
 
+    /**
+     * 场馆下所有启用片场连续多天的可订矩阵，供小程序首页一次加载。
+     * slots[d] 为第 d 天 48 个半小时段的占用位图，按 12 位十六进制编码，
+     * 最低位对应 00:00-00:30
+     */
+    public Map<String, Object> availability(Long venueId, String from, Integer days) {
+        Long merchantId = SecurityUtils.requireCustomerMerchantId();
+        featureService.requireEnabled(merchantId, MerchantFeatureService.Feature.BOOKING);
+        if (venueId == null || !StringUtils.hasText(from)) {
+            throw new BusinessException(400, "场馆与开始日期必填");
+        }
+        int n = days == null ? 7 : days;
+        if (n < 1 || n > MAX_AVAILABILITY_DAYS) {
+            throw new BusinessException(400, "天数须在1-" + MAX_AVAILABILITY_DAYS + "之间");
+        }
+        LocalDate day = LocalDate.parse(from);
+        List<Court> courts = courtRepository.findByMerchantIdAndVenueIdAndStatusOrderBySortOrderAscIdAsc(
+                merchantId, venueId, Court.CourtStatus.ACTIVE);
+        Map<Long, long[]> bits = courts.isEmpty()
+                ? Map.of()
+                : occupancyIndex.rangeBits(courts.stream().map(Court::getId).collect(Collectors.toList()), day, n);
+        List<Map<String, Object>> rows = new ArrayList<>(courts.size());
+        for (Court c : courts) {
+            long[] courtBits = bits.get(c.getId());
+            List<String> encoded = new ArrayList<>(n);
+            for (long b : courtBits) {
+                encoded.add(String.format("%012x", b));
+            }
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("courtId", c.getId());
+            m.put("courtName", c.getName());
+            m.put("slots", encoded);
+            rows.add(m);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("venueId", venueId);
+        result.put("from", day.toString());
+        result.put("days", n);
+        result.put("slotMinutes", SlotGrid.SLOT_MINUTES);
+        result.put("courts", rows);
+        return result;
+    }
+
     @Transactional
     public Map<String, Object> create(Map<String, Object> body) {
         Long merchantId = SecurityUtils.requireCustomerMerchantId();
@@ -123,8 +167,7 @@ public class CBookingService {
         if (amount.compareTo(BigDecimal.ZERO) > 0) {
             // 先占场再建扣款：用短事务内冲突检测 + 扣款
         }
-        List<Booking> conflicts = bookingRepository.findConflicts(courtId, start, end, OCCUPYING, null);
-        if (!conflicts.isEmpty()) {
+        if (!occupancyIndex.isFree(courtId, start, end)) {
             throw new BusinessException(409, "时段已被占用");
         }
 
@@ -145,7 +188,11 @@ public class CBookingService {
         booking.setSource("C");
         booking.setCustomerUserId(customerId);
         booking.setStatus(Booking.BookingStatus.BOOKED);
+        if (!slotClaimService.claim(booking)) {
+            throw new BusinessException(409, "时段已被占用");
+        }
         Booking saved = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new BookingCreatedEvent(saved.getId(), saved.getEndTime()));
         if (amount.compareTo(BigDecimal.ZERO) > 0) {
             walletService.debit(merchantId, customerId, amount, "BOOKING_PAY", saved.getId(), "订场扣款");
         }
@@ -178,6 +225,7 @@ public class CBookingService {
         booking.setCancelledAt(LocalDateTime.now());
         booking.setCancelReason("用户取消");
         bookingRepository.save(booking);
+        slotClaimService.release(booking);
         if (booking.getAmount() != null && booking.getAmount().compareTo(BigDecimal.ZERO) > 0) {
             walletService.credit(merchantId, customerId, booking.getAmount(),
                     "BOOKING_REFUND", booking.getId(), "订场取消退款");
@@ -0,0 +1,128 @@
+package com.sportvenue.venue.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sportvenue.venue.entity.Product;
+import com.sportvenue.venue.repository.ProductRepository;
+import com.sportvenue.venue.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 收银台商品快照：按商户缓存未删除商品的价格、状态、所属场馆，收银开单计价只读内存。
+ * 每个商户一个本地版本号，商品写操作提交后递增并经 pub/sub 通知其他实例；
+ * 快照版本落后即重新加载，另有 TTL 兜底丢失的通知
+ */
+@Slf4j
+@Component
+public class CashierCatalog implements MessageListener {
+
+    public static final String INVALIDATE_CHANNEL = "product:catalog:invalidate";
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final ConcurrentHashMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Cache<Long, Snapshot> snapshots;
+    private final long refreshMinMs;
+
+    public CashierCatalog(@Value("${saas.cache.catalog.local-max:2000}") long localMax,
+                          @Value("${saas.cache.catalog.ttl-ms:300000}") long ttlMs,
+                          @Value("${saas.cache.catalog.refresh-min-ms:3000}") long refreshMinMs) {
+        this.refreshMinMs = refreshMinMs;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(localMax)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /** 商户当前快照，版本过期时重新加载 */
+    public Snapshot get(Long merchantId) {
+        long version = version(merchantId).get();
+        Snapshot snapshot = snapshots.getIfPresent(merchantId);
+        if (snapshot != null && snapshot.version() == version) {
+            return snapshot;
+        }
+        return load(merchantId, version);
+    }
+
+    /**
+     * 快照中找不到商品时调用：可能是其他实例刚新建、通知尚未到达，重新加载一次。
+     * 不递增版本号（否则其他请求手里的快照全部作废），且快照加载不足 refresh-min-ms 时直接返回，
+     * 避免不存在的商品 ID 反复触发整商户重载
+     */
+    public Snapshot refresh(Long merchantId) {
+        long version = version(merchantId).get();
+        Snapshot snapshot = snapshots.getIfPresent(merchantId);
+        if (snapshot != null && snapshot.version() == version
+                && System.currentTimeMillis() - snapshot.loadedAt() < refreshMinMs) {
+            return snapshot;
+        }
+        return load(merchantId, version);
+    }
+
+    /** 当前事务提交后使该商户快照失效，并通知其他实例；无事务时立即执行 */
+    public void evictAfterCommit(Long merchantId) {
+        AfterCommit.run(() -> {
+            version(merchantId).incrementAndGet();
+            try {
+                stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, String.valueOf(merchantId));
+            } catch (RuntimeException e) {
+                log.warn("发布收银商品失效消息失败，merchantId={}：{}", merchantId, e.getMessage());
+            }
+        });
+    }
+
+    /** 其他实例发来的失效通知，消息体为 merchantId */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8).replace("\"", "");
+        try {
+            version(Long.valueOf(body)).incrementAndGet();
+        } catch (NumberFormatException e) {
+            log.warn("忽略无法解析的收银商品失效消息：{}", body);
+        }
+    }
+
+    /** 先读版本再查库：加载期间有提交时版本已变，下次读取会再次加载 */
+    private Snapshot load(Long merchantId, long version) {
+        Map<Long, Item> products = new HashMap<>();
+        for (Product p : productRepository.findByMerchantIdAndDeletedFalse(merchantId)) {
+            products.put(p.getId(), new Item(p.getId(), p.getVenueId(), p.getName(), p.getUnit(), p.getPrice(),
+                    p.getStatus()));
+        }
+        Snapshot snapshot = new Snapshot(version, Map.copyOf(products), System.currentTimeMillis());
+        snapshots.put(merchantId, snapshot);
+        return snapshot;
+    }
+
+    private AtomicLong version(Long merchantId) {
+        return versions.computeIfAbsent(merchantId, id -> new AtomicLong());
+    }
+
+    public record Snapshot(long version, Map<Long, Item> products, long loadedAt) {
+
+        public Item product(Long id) {
+            return id == null ? null : products.get(id);
+        }
+    }
+
+    public record Item(Long id, Long venueId, String name, String unit, BigDecimal price,
+                       Product.ProductStatus status) {
+    }
+}
@@ -0,0 +1,210 @@
+package com.sportvenue.venue.service;
+
+import com.sportvenue.venue.entity.Booking;
+import com.sportvenue.venue.event.BookingsExpiredEvent;
+import com.sportvenue.venue.repository.BookingRepository;
+import com.sportvenue.venue.util.AfterCommit;
+import com.sportvenue.venue.util.SlotGrid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 片场按天占用位图：每个片场每天 48 个半小时段，正好占一个 long 的低 48 位。
+ * 首次访问时用 findDayOccupancy 预热，建单时 CAS 预占、取消/过期在事务提交后释放；
+ * 超过 TTL 的条目会重新从库加载，用于吸收其他实例的写入。
+ */
+@Slf4j
+@Component
+public class CourtOccupancyIndex {
+
+    private static final List<Booking.BookingStatus> OCCUPYING =
+            Arrays.asList(Booking.BookingStatus.BOOKED, Booking.BookingStatus.COMPLETED);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Value("${saas.booking.occupancy-ttl-ms:60000}")
+    private long ttlMs;
+
+    private final ConcurrentHashMap<DayKey, DayBits> days = new ConcurrentHashMap<>();
+
+    /** 指定片场某天的占用位图，bit i 表示第 i 个半小时段已占用 */
+    public long dayBits(Long courtId, LocalDate day) {
+        return load(courtId, day).bits.get();
+    }
+
+    /**
+     * 多片场连续多天的占用位图，返回 courtId -> long[dayCount]；
+     * 缓存缺失或过期的片场合并为一次区间查询加载
+     */
+    public Map<Long, long[]> rangeBits(List<Long> courtIds, LocalDate from, int dayCount) {
+        long now = System.currentTimeMillis();
+        Map<Long, long[]> result = new LinkedHashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long courtId : courtIds) {
+            long[] bits = new long[dayCount];
+            for (int d = 0; d < dayCount; d++) {
+                DayBits entry = days.get(new DayKey(courtId, from.toEpochDay() + d));
+                if (entry == null || now - entry.loadedAt > ttlMs) {
+                    missing.add(courtId);
+                    break;
+                }
+                bits[d] = entry.bits.get();
+            }
+            result.put(courtId, bits);
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Map<Long, long[]> loaded = new HashMap<>();
+        for (Long courtId : missing) {
+            loaded.put(courtId, new long[dayCount]);
+        }
+        LocalDateTime start = from.atStartOfDay();
+        List<Booking> bookings = bookingRepository.findRangeOccupancy(
+                missing, start, start.plusDays(dayCount), OCCUPYING);
+        for (Booking b : bookings) {
+            long[] bits = loaded.get(b.getCourtId());
+            for (int d = 0; d < dayCount; d++) {
+                bits[d] |= SlotGrid.mask(from.plusDays(d), b.getStartTime(), b.getEndTime());
+            }
+        }
+        loaded.forEach((courtId, bits) -> {
+            for (int d = 0; d < dayCount; d++) {
+                days.put(new DayKey(courtId, from.toEpochDay() + d), new DayBits(bits[d], now));
+            }
+            result.put(courtId, bits);
+        });
+        return result;
+    }
+
+    /**
+     * 用调用方已查出的占用记录预热单个片场的若干天，bookings 须覆盖这些天内的全部占用；
+     * 只填充缺失或过期的条目，之后的 tryReserve 不再逐天回库
+     */
+    public void seedDays(Long courtId, Collection<LocalDate> seedDays, List<Booking> bookings) {
+        long now = System.currentTimeMillis();
+        for (LocalDate day : seedDays) {
+            days.compute(new DayKey(courtId, day.toEpochDay()), (key, entry) -> {
+                if (entry != null && now - entry.loadedAt <= ttlMs) {
+                    return entry;
+                }
+                long bits = 0L;
+                for (Booking b : bookings) {
+                    bits |= SlotGrid.mask(day, b.getStartTime(), b.getEndTime());
+                }
+                return new DayBits(bits, now);
+            });
+        }
+    }
+
+    /** [start, end) 是否全部空闲 */
+    public boolean isFree(Long courtId, LocalDateTime start, LocalDateTime end) {
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            long mask = SlotGrid.mask(day, start, end);
+            if (mask != 0 && (dayBits(courtId, day) & mask) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 以 CAS 原子预占 [start, end)，任一天已被占用则回退已预占的天并返回 false；
+     * 同一实例内的并发请求在这里即可判负，不必打到数据库
+     */
+    public boolean tryReserve(Long courtId, LocalDateTime start, LocalDateTime end) {
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            long mask = SlotGrid.mask(day, start, end);
+            if (mask == 0) {
+                continue;
+            }
+            AtomicLong bits = load(courtId, day).bits;
+            long cur;
+            do {
+                cur = bits.get();
+                if ((cur & mask) != 0) {
+                    release(courtId, start, day.atStartOfDay());
+                    return false;
+                }
+            } while (!bits.compareAndSet(cur, cur | mask));
+        }
+        return true;
+    }
+
+    /** 当前事务未提交（回滚）时撤销预占；无事务时不做处理 */
+    public void releaseOnRollback(Long courtId, LocalDateTime start, LocalDateTime end) {
+        AfterCommit.onRollback(() -> release(courtId, start, end));
+    }
+
+    /** 当前事务提交后释放占用；无事务时立即生效 */
+    public void releaseAfterCommit(Booking booking) {
+        AfterCommit.run(() -> release(booking.getCourtId(), booking.getStartTime(), booking.getEndTime()));
+    }
+
+    public void release(Long courtId, LocalDateTime start, LocalDateTime end) {
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            long mask = SlotGrid.mask(day, start, end);
+            DayBits entry = days.get(new DayKey(courtId, day.toEpochDay()));
+            if (mask != 0 && entry != null) {
+                entry.bits.getAndUpdate(b -> b & ~mask);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingsExpired(BookingsExpiredEvent event) {
+        for (BookingsExpiredEvent.Expired b : event.bookings()) {
+            release(b.courtId(), b.startTime(), b.endTime());
+        }
+    }
+
+    /** 丢弃过期条目，避免历史日期常驻内存 */
+    @Scheduled(fixedDelayString = "${saas.booking.occupancy-ttl-ms:60000}")
+    public void evictStale() {
+        long now = System.currentTimeMillis();
+        days.values().removeIf(d -> now - d.loadedAt > ttlMs);
+    }
+
+    private DayBits load(Long courtId, LocalDate day) {
+        DayKey key = new DayKey(courtId, day.toEpochDay());
+        DayBits entry = days.get(key);
+        long now = System.currentTimeMillis();
+        if (entry != null && now - entry.loadedAt <= ttlMs) {
+            return entry;
+        }
+        LocalDateTime dayStart = day.atStartOfDay();
+        List<Booking> bookings = bookingRepository.findDayOccupancy(
+                courtId, dayStart, dayStart.plusDays(1), OCCUPYING);
+        long bits = 0L;
+        for (Booking b : bookings) {
+            bits |= SlotGrid.mask(day, b.getStartTime(), b.getEndTime());
+        }
+        DayBits fresh = new DayBits(bits, now);
+        days.put(key, fresh);
+        return fresh;
+    }
+
+    private record DayKey(Long courtId, long epochDay) {
+    }
+
+    private static final class DayBits {
+        private final AtomicLong bits;
+        private final long loadedAt;
+
+        private DayBits(long bits, long loadedAt) {
+            this.bits = new AtomicLong(bits);
+            this.loadedAt = loadedAt;
+        }
+    }
+}
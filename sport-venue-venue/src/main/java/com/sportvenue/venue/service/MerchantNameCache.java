@@ -0,0 +1,66 @@
+package com.sportvenue.venue.service;
+
+import com.sportvenue.venue.entity.Court;
+import com.sportvenue.venue.entity.Venue;
+import com.sportvenue.venue.repository.CourtRepository;
+import com.sportvenue.venue.repository.VenueRepository;
+import com.sportvenue.venue.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 按商户缓存片场/场馆名称，供列表 DTO 组装使用；片场、场馆写操作提交后失效，
+ * 另有 TTL 兜底其他实例的修改
+ */
+@Component
+public class MerchantNameCache {
+
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private VenueRepository venueRepository;
+
+    @Value("${saas.cache.name-ttl-ms:300000}")
+    private long ttlMs;
+
+    private final ConcurrentHashMap<Long, Names> cache = new ConcurrentHashMap<>();
+
+    public Names get(Long merchantId) {
+        Names names = cache.get(merchantId);
+        if (names != null && System.currentTimeMillis() - names.loadedAt() <= ttlMs) {
+            return names;
+        }
+        Names fresh = new Names(
+                courtRepository.findByMerchantIdOrderBySortOrderAscIdAsc(merchantId).stream()
+                        .collect(Collectors.toMap(Court::getId, Court::getName, (a, b) -> a)),
+                venueRepository.findByMerchantId(merchantId).stream()
+                        .collect(Collectors.toMap(Venue::getId, Venue::getName, (a, b) -> a)),
+                System.currentTimeMillis());
+        cache.put(merchantId, fresh);
+        return fresh;
+    }
+
+    /** 当前事务提交后失效；无事务时立即失效 */
+    public void evict(Long merchantId) {
+        if (merchantId == null) {
+            return;
+        }
+        AfterCommit.run(() -> cache.remove(merchantId));
+    }
+
+    public record Names(Map<Long, String> courts, Map<Long, String> venues, long loadedAt) {
+
+        public String court(Long id) {
+            return courts.getOrDefault(id, "");
+        }
+
+        public String venue(Long id) {
+            return venues.getOrDefault(id, "");
+        }
+    }
+}
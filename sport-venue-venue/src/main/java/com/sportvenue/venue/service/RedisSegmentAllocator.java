@@ -0,0 +1,64 @@
+package com.sportvenue.venue.service;
+
+import com.sportvenue.common.sequence.SegmentAllocator;
+import com.sportvenue.venue.repository.BookingRepository;
+import com.sportvenue.venue.repository.SalesOrderRepository;
+import com.sportvenue.venue.repository.SalesPaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 基于 Redis INCRBY 的单号号段分配，key 为“前缀+日期”，如 SO20240101。
+ * 计数器不存在时（当天首次分配，或 Redis 数据在过期前丢失）以库内最大序号加余量初始化：
+ * 其他实例手里已租未用的号段可能高于库内最大序号，余量按 号段长度 × 实例数 预留，避免重复发号
+ */
+@Slf4j
+@Component
+public class RedisSegmentAllocator implements SegmentAllocator {
+
+    private static final String KEY_PREFIX = "order-no:";
+    private static final Duration KEY_TTL = Duration.ofDays(2);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private SalesOrderRepository salesOrderRepository;
+    @Autowired
+    private SalesPaymentRepository salesPaymentRepository;
+
+    @Value("${saas.order-no.reseed-instances:10}")
+    private int reseedInstances;
+
+    @Override
+    public long allocate(String key, int step) {
+        String redisKey = KEY_PREFIX + key;
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(redisKey))) {
+            long seed = currentMax(key) + (long) step * reseedInstances;
+            if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(redisKey, String.valueOf(seed), KEY_TTL))) {
+                log.info("单号计数器 {} 初始化为 {}", key, seed);
+            }
+        }
+        Long max = stringRedisTemplate.opsForValue().increment(redisKey, step);
+        if (max == null) {
+            throw new IllegalStateException("单号号段分配失败: " + key);
+        }
+        return max;
+    }
+
+    private long currentMax(String key) {
+        Long max = switch (key.substring(0, 2)) {
+            case "BK" -> bookingRepository.findMaxSeqByPrefix(key);
+            case "SO" -> salesOrderRepository.findMaxSeqByPrefix(key);
+            case "SP" -> salesPaymentRepository.findMaxSeqByPrefix(key);
+            default -> 0L;
+        };
+        return max == null ? 0 : max;
+    }
+}
@@ -0,0 +1,241 @@
+package com.sportvenue.venue.service;
+
+import com.sportvenue.common.exception.BusinessException;
+import com.sportvenue.venue.entity.Venue;
+import com.sportvenue.venue.repository.SalesReportQuery;
+import com.sportvenue.venue.util.Csv;
+import com.sportvenue.venue.util.SecurityUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 多日销售报表导出（CSV）：daily 按日期 × 场馆、products 按商品、items 逐条明细。
+ * 结果集流式读取、边读边写，同一时刻只保留当前一组的累计值，内存占用与区间长度无关。
+ * 参数校验和登录信息在请求线程内完成（prepare），写出在异步线程中进行（write）
+ */
+@Slf4j
+@Service
+public class SalesReportExporter {
+
+    private static final DateTimeFormatter DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private SalesReportQuery salesReportQuery;
+    @Autowired
+    private VenueCache venueCache;
+
+    @Value("${saas.sales.report-max-days:366}")
+    private int maxDays;
+
+    public enum Type {
+        DAILY, PRODUCTS, ITEMS
+    }
+
+    public record Report(Type type, Long merchantId, Long operatorId, Long venueId, LocalDate from, LocalDate to) {
+
+        public String filename() {
+            return "sales-" + type.name().toLowerCase() + "-" + from + "_" + to + ".csv";
+        }
+    }
+
+    /** 校验参数并锁定当前商户；非老板只能导出自己经手的订单 */
+    public Report prepare(String type, String start, String end, Long venueId) {
+        Long merchantId = SecurityUtils.requireMerchantId();
+        Long operatorId = SecurityUtils.isOwner() ? null : SecurityUtils.currentUserId();
+        Type reportType;
+        try {
+            reportType = StringUtils.hasText(type) ? Type.valueOf(type.trim().toUpperCase()) : Type.DAILY;
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("无效的报表类型");
+        }
+        if (!StringUtils.hasText(start)) {
+            throw new BusinessException("请选择开始日期");
+        }
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(start);
+            to = StringUtils.hasText(end) ? LocalDate.parse(end) : LocalDate.now();
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("日期格式应为 yyyy-MM-dd");
+        }
+        if (from.isAfter(to)) {
+            throw new BusinessException("开始日期不能晚于结束日期");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new BusinessException("导出区间不能超过 " + maxDays + " 天");
+        }
+        if (venueId != null && !merchantId.equals(venueCache.require(venueId).getMerchantId())) {
+            throw new BusinessException(403, "无权操作该场馆");
+        }
+        return new Report(reportType, merchantId, operatorId, venueId, from, to);
+    }
+
+    public void write(Report report, OutputStream out) throws IOException {
+        long begin = System.nanoTime();
+        Map<Long, String> venueNames = venueCache.byMerchant(report.merchantId()).stream()
+                .collect(Collectors.toMap(Venue::getId, Venue::getName, (a, b) -> a));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        // BOM 让 Excel 按 UTF-8 打开
+        writer.write('\uFEFF');
+        int rows;
+        try {
+            rows = switch (report.type()) {
+                case DAILY -> writeDaily(report, venueNames, writer);
+                case PRODUCTS -> writeProducts(report, writer);
+                case ITEMS -> writeItems(report, venueNames, writer);
+            };
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("销售报表导出完成：商户 {}，{} {}~{}，{} 行，耗时 {} ms", report.merchantId(), report.type(),
+                report.from(), report.to(), rows, (System.nanoTime() - begin) / 1_000_000);
+    }
+
+    /** 日汇总按 (日期, 场馆) 有序到达，组切换时写出上一组，末尾追加合计行 */
+    private int writeDaily(Report report, Map<Long, String> venueNames, Writer writer) throws IOException {
+        Csv.writeRow(writer, "日期", "场馆", "订单数", "件数", "金额", "现金", "微信", "支付宝");
+        DailyLine line = new DailyLine();
+        DailyLine total = new DailyLine();
+        int[] rows = {0};
+        salesReportQuery.streamDaily(report.merchantId(), report.venueId(), report.operatorId(),
+                report.from(), report.to(), rs -> {
+                    LocalDate day = rs.getDate("sale_date").toLocalDate();
+                    long venueId = rs.getLong("venue_id");
+                    if (!line.is(day, venueId)) {
+                        if (line.day != null) {
+                            write(writer, line.row(venueNames.getOrDefault(line.venueId, "")));
+                            rows[0]++;
+                        }
+                        line.reset(day, venueId);
+                    }
+                    String method = rs.getString("pay_method");
+                    int orders = rs.getInt("order_count");
+                    int qty = rs.getInt("total_qty");
+                    BigDecimal amount = rs.getBigDecimal("total_amount");
+                    line.add(method, orders, qty, amount);
+                    total.add(method, orders, qty, amount);
+                });
+        if (line.day != null) {
+            Csv.writeRow(writer, line.row(venueNames.getOrDefault(line.venueId, "")));
+            rows[0]++;
+        }
+        Csv.writeRow(writer, total.row("合计"));
+        return rows[0];
+    }
+
+    private int writeProducts(Report report, Writer writer) throws IOException {
+        Csv.writeRow(writer, "商品ID", "商品", "单位", "单价", "订单数", "件数", "金额");
+        int[] rows = {0};
+        int[] totalQty = {0};
+        BigDecimal[] totalAmount = {BigDecimal.ZERO};
+        salesReportQuery.streamProducts(report.merchantId(), report.venueId(), report.operatorId(),
+                report.from(), report.to(), rs -> {
+                    long productId = rs.getLong("product_id");
+                    BigDecimal amount = rs.getBigDecimal("total_amount");
+                    int qty = rs.getInt("total_qty");
+                    write(writer, productId == 0 ? null : productId, rs.getString("product_name"),
+                            rs.getString("unit"), rs.getBigDecimal("unit_price"), rs.getInt("order_count"), qty,
+                            amount);
+                    totalQty[0] += qty;
+                    totalAmount[0] = totalAmount[0].add(amount);
+                    rows[0]++;
+                });
+        Csv.writeRow(writer, "合计", null, null, null, null, totalQty[0], totalAmount[0]);
+        return rows[0];
+    }
+
+    private int writeItems(Report report, Map<Long, String> venueNames, Writer writer) throws IOException {
+        Csv.writeRow(writer, "订单号", "支付时间", "场馆", "操作员", "支付方式", "商品", "单位", "单价", "数量", "小计");
+        int[] rows = {0};
+        salesReportQuery.streamItems(report.merchantId(), report.venueId(), report.operatorId(),
+                report.from(), report.to(), rs -> {
+                    Timestamp paidAt = rs.getTimestamp("paid_at");
+                    write(writer, rs.getString("order_no"),
+                            paidAt == null ? null : DATETIME.format(paidAt.toLocalDateTime()),
+                            venueNames.getOrDefault(rs.getLong("venue_id"), ""), rs.getString("operator_name"),
+                            payLabel(rs.getString("pay_method")), rs.getString("product_name"), rs.getString("unit"),
+                            rs.getBigDecimal("unit_price"), rs.getInt("quantity"), rs.getBigDecimal("subtotal"));
+                    rows[0]++;
+                });
+        return rows[0];
+    }
+
+    /** 结果集回调里不能抛受检异常，包一层由 write 解开 */
+    private static void write(Writer writer, Object... fields) {
+        try {
+            Csv.writeRow(writer, fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String payLabel(String method) {
+        if (method == null) {
+            return null;
+        }
+        return switch (method) {
+            case "CASH" -> "现金";
+            case "WECHAT" -> "微信";
+            case "ALIPAY" -> "支付宝";
+            default -> method;
+        };
+    }
+
+    /** 日报表当前一组（或合计）的累计值 */
+    private static final class DailyLine {
+        private LocalDate day;
+        private long venueId;
+        private int orders;
+        private int qty;
+        private BigDecimal amount = BigDecimal.ZERO;
+        private BigDecimal cash = BigDecimal.ZERO;
+        private BigDecimal wechat = BigDecimal.ZERO;
+        private BigDecimal alipay = BigDecimal.ZERO;
+
+        private boolean is(LocalDate day, long venueId) {
+            return day.equals(this.day) && venueId == this.venueId;
+        }
+
+        private void reset(LocalDate day, long venueId) {
+            this.day = day;
+            this.venueId = venueId;
+            orders = 0;
+            qty = 0;
+            amount = cash = wechat = alipay = BigDecimal.ZERO;
+        }
+
+        private void add(String method, int orders, int qty, BigDecimal amount) {
+            this.orders += orders;
+            this.qty += qty;
+            this.amount = this.amount.add(amount);
+            switch (method) {
+                case "CASH" -> cash = cash.add(amount);
+                case "WECHAT" -> wechat = wechat.add(amount);
+                case "ALIPAY" -> alipay = alipay.add(amount);
+                default -> {
+                }
+            }
+        }
+
+        private Object[] row(String label) {
+            return new Object[]{day == null ? label : day, day == null ? null : label, orders, qty, amount,
+                    cash, wechat, alipay};
+        }
+    }
+}
@@ -20,7 +20,7 @@ public interface SalesService {
     ApiResponse<Map<String, Object>> getOrderStatus(Long orderId);
 
     ApiResponse<Page<SalesOrderDTO>> listOrders(String date, Long venueId, String status,
-                                                String payMethod, int page, int size);
+                                                String payMethod, boolean summaryOnly, int page, int size);
 
     ApiResponse<DailySummaryDTO> dailySummary(String date, Long venueId);
 
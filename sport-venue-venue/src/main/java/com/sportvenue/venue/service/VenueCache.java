@@ -0,0 +1,203 @@
+package com.sportvenue.venue.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.sportvenue.common.exception.BusinessException;
+import com.sportvenue.venue.entity.Venue;
+import com.sportvenue.venue.repository.VenueRepository;
+import com.sportvenue.venue.util.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 场馆只读缓存：本地 Caffeine（LRU + 短 TTL）→ Redis → 数据库，按场馆 ID 与商户 ID 两种键缓存。
+ * 场馆修改、删除、状态变更在事务提交后删除 Redis 键并通过 pub/sub 广播，各实例收到后清理本地缓存；
+ * 延迟一段时间后再删一次，清掉删除前已读到旧值、删除后才回写 Redis 的并发回源结果。
+ * 返回的是共享快照，只能用于读取，需要修改时仍从 VenueRepository 加载
+ */
+@Slf4j
+@Component
+public class VenueCache implements MessageListener {
+
+    public static final String INVALIDATE_CHANNEL = "venue:invalidate";
+    private static final String VENUE_KEY = "venue:id:";
+    private static final String MERCHANT_KEY = "venue:merchant:";
+    private static final TypeReference<List<Venue>> VENUE_LIST = new TypeReference<>() {
+    };
+
+    @Autowired
+    private VenueRepository venueRepository;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${saas.cache.venue.redis-ttl-ms:1800000}")
+    private long redisTtlMs;
+    @Value("${saas.cache.venue.double-delete-ms:1000}")
+    private long doubleDeleteMs;
+
+    private final Cache<Long, Optional<Venue>> byId;
+    private final Cache<Long, List<Venue>> byMerchant;
+    /** 延迟二次删除专用；不依赖自动配置的 TaskScheduler，WebSocket 配置下它可能不存在 */
+    private final ScheduledExecutorService delayedEvict = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("venue-cache-evict").daemon().factory());
+
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder redisMisses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    public VenueCache(@Value("${saas.cache.venue.local-max:10000}") long localMax,
+                      @Value("${saas.cache.venue.local-ttl-ms:60000}") long localTtlMs) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(localMax)
+                .expireAfterWrite(localTtlMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        this.byMerchant = Caffeine.newBuilder()
+                .maximumSize(Math.max(localMax / 10, 100))
+                .expireAfterWrite(localTtlMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Venue> get(Long venueId) {
+        return byId.get(venueId, id -> Optional.ofNullable(
+                readThrough(VENUE_KEY + id, Venue.class, () -> venueRepository.findById(id).orElse(null))));
+    }
+
+    public Venue require(Long venueId) {
+        return get(venueId).orElseThrow(() -> new BusinessException("场馆不存在"));
+    }
+
+    public String name(Long venueId) {
+        return venueId == null ? "" : get(venueId).map(Venue::getName).orElse("");
+    }
+
+    public List<Venue> byMerchant(Long merchantId) {
+        return byMerchant.get(merchantId, id -> {
+            List<Venue> venues = readThrough(MERCHANT_KEY + id, VENUE_LIST, () -> venueRepository.findByMerchantId(id));
+            return venues == null ? List.of() : List.copyOf(venues);
+        });
+    }
+
+    /** 当前事务提交后失效该场馆及其商户列表（venueId 为空时只失效商户列表），并通知其他实例；无事务时立即执行 */
+    public void evictAfterCommit(Long venueId, Long merchantId) {
+        AfterCommit.run(() -> {
+            delayedEvict.schedule(() -> {
+                try {
+                    evict(venueId, merchantId);
+                } catch (RuntimeException e) {
+                    log.warn("场馆缓存延迟删除失败：venue={}, merchant={}，{}", venueId, merchantId, e.getMessage());
+                }
+            }, doubleDeleteMs, TimeUnit.MILLISECONDS);
+            evict(venueId, merchantId);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        delayedEvict.shutdown();
+    }
+
+    /** 其他实例发来的失效通知，消息体为 venueId:merchantId */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8).replace("\"", "");
+        int sep = body.indexOf(':');
+        try {
+            String venueId = body.substring(0, sep);
+            evictLocal(venueId.isEmpty() ? null : Long.valueOf(venueId), Long.valueOf(body.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            log.warn("忽略无法解析的场馆缓存失效消息：{}", body);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${saas.cache.venue.stats-ms:300000}")
+    public void logStats() {
+        CacheStats local = byId.stats();
+        long redisTotal = redisHits.sum() + redisMisses.sum();
+        long loadCount = loads.sum();
+        if (local.requestCount() == 0) {
+            return;
+        }
+        log.info("场馆缓存：本地命中率 {}%（{} 次请求），Redis 命中率 {}%（{} 次），回源 {} 次，平均回源 {} ms",
+                Math.round(local.hitRate() * 1000) / 10.0, local.requestCount(),
+                redisTotal == 0 ? 0 : Math.round(redisHits.sum() * 1000.0 / redisTotal) / 10.0, redisTotal,
+                loadCount, loadCount == 0 ? 0 : Math.round(loadNanos.sum() / 1e4 / loadCount) / 100.0);
+    }
+
+    private void evict(Long venueId, Long merchantId) {
+        stringRedisTemplate.delete(venueId == null
+                ? List.of(MERCHANT_KEY + merchantId)
+                : List.of(VENUE_KEY + venueId, MERCHANT_KEY + merchantId));
+        evictLocal(venueId, merchantId);
+        stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, (venueId == null ? "" : venueId) + ":" + merchantId);
+    }
+
+    private void evictLocal(Long venueId, Long merchantId) {
+        if (venueId != null) {
+            byId.invalidate(venueId);
+        }
+        if (merchantId != null) {
+            byMerchant.invalidate(merchantId);
+        }
+    }
+
+    private <T> T readThrough(String key, Class<T> type, Supplier<T> loader) {
+        return readThrough(key, objectMapper.constructType(type), loader);
+    }
+
+    private <T> T readThrough(String key, TypeReference<T> type, Supplier<T> loader) {
+        return readThrough(key, objectMapper.constructType(type), loader);
+    }
+
+    /** Redis 不可用或反序列化失败时直接回源，不影响业务 */
+    private <T> T readThrough(String key, JavaType type, Supplier<T> loader) {
+        try {
+            String json = stringRedisTemplate.opsForValue().get(key);
+            if (json != null) {
+                redisHits.increment();
+                return objectMapper.readValue(json, type);
+            }
+        } catch (Exception e) {
+            log.warn("读取场馆缓存失败，key={}：{}", key, e.getMessage());
+        }
+        redisMisses.increment();
+        long begin = System.nanoTime();
+        T value = loader.get();
+        loads.increment();
+        loadNanos.add(System.nanoTime() - begin);
+        if (value != null) {
+            try {
+                stringRedisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(value),
+                        Duration.ofMillis(redisTtlMs));
+            } catch (Exception e) {
+                log.warn("写入场馆缓存失败，key={}：{}", key, e.getMessage());
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,233 @@
+package com.sportvenue.venue.service;
+
+import com.sportvenue.venue.entity.Venue;
+import com.sportvenue.venue.repository.VenueRepository;
+import com.sportvenue.venue.util.AfterCommit;
+import com.sportvenue.venue.util.LoadOnce;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 营业中场馆的内存网格索引：按经纬度切成 0.05° 的格子（约 5.5 km），
+ * 半径查询只扫覆盖范围内的格子，K 近邻按环向外扩展，距离用 haversine 计算。
+ * 场馆增改、状态变更在事务提交后增量更新，定时全量重建吸收其他实例的修改
+ */
+@Slf4j
+@Component
+public class VenueGeoIndex {
+
+    public static final double EARTH_RADIUS_M = 6_371_008.8;
+    /** 每度纬度对应的米数 */
+    public static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_M / 180;
+
+    private static final double CELL_DEG = 0.05;
+    private static final int ROWS = (int) Math.round(180 / CELL_DEG);
+    private static final int COLS = (int) Math.round(360 / CELL_DEG);
+    /** K 近邻扩环上限（约 1000 km），再远直接全量扫描 */
+    private static final int MAX_RING = 200;
+
+    @Autowired
+    private VenueRepository venueRepository;
+
+    private volatile Map<Long, Point> points = new ConcurrentHashMap<>();
+    private volatile Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private final LoadOnce loadOnce = new LoadOnce();
+
+    /** 半径 radiusMeters 内的场馆，按距离升序，至多 limit 个 */
+    public List<Hit> withinRadius(double lat, double lng, double radiusMeters, int limit) {
+        ensureLoaded();
+        int row0 = row(lat);
+        int col0 = col(lng);
+        int latCells = (int) Math.ceil(radiusMeters / METERS_PER_DEGREE / CELL_DEG);
+        int lngCells = (int) Math.ceil(radiusMeters / (METERS_PER_DEGREE * cosAt(lat, latCells)) / CELL_DEG);
+        List<Hit> hits = new ArrayList<>();
+        Map<Long, Point> pts = points;
+        Map<Long, Set<Long>> cls = cells;
+        int colSpan = Math.min(lngCells, COLS / 2);
+        for (int r = Math.max(row0 - latCells, 0); r <= Math.min(row0 + latCells, ROWS - 1); r++) {
+            for (int dc = -colSpan; dc <= colSpan && dc < COLS - colSpan; dc++) {
+                Set<Long> ids = cls.get(cellKey(r, Math.floorMod(col0 + dc, COLS)));
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    Point p = pts.get(id);
+                    if (p == null) {
+                        continue;
+                    }
+                    double d = haversine(lat, lng, p.lat, p.lng);
+                    if (d <= radiusMeters) {
+                        hits.add(new Hit(id, d));
+                    }
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceMeters));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    /** 距离最近的 k 个场馆，按距离升序 */
+    public List<Hit> nearest(double lat, double lng, int k) {
+        ensureLoaded();
+        Map<Long, Point> pts = points;
+        Map<Long, Set<Long>> cls = cells;
+        if (pts.size() <= k) {
+            return scanAll(pts, lat, lng, k);
+        }
+        int row0 = row(lat);
+        int col0 = col(lng);
+        List<Hit> candidates = new ArrayList<>();
+        for (int ring = 0; ring <= MAX_RING; ring++) {
+            for (int dr = -ring; dr <= ring; dr++) {
+                int r = row0 + dr;
+                if (r < 0 || r >= ROWS) {
+                    continue;
+                }
+                // 环上的格子：首末行取整行，其余行只取左右两端
+                int step = Math.abs(dr) == ring ? 1 : Math.max(2 * ring, 1);
+                for (int dc = -ring; dc <= ring; dc += step) {
+                    Set<Long> ids = cls.get(cellKey(r, Math.floorMod(col0 + dc, COLS)));
+                    if (ids == null) {
+                        continue;
+                    }
+                    for (Long id : ids) {
+                        Point p = pts.get(id);
+                        if (p != null) {
+                            candidates.add(new Hit(id, haversine(lat, lng, p.lat, p.lng)));
+                        }
+                    }
+                }
+            }
+            if (candidates.size() >= k) {
+                candidates.sort(Comparator.comparingDouble(Hit::distanceMeters));
+                // 环外的点与查询点至少相隔 ring 个格子
+                double covered = ring * CELL_DEG * METERS_PER_DEGREE * cosAt(lat, ring);
+                if (candidates.get(k - 1).distanceMeters <= covered) {
+                    return new ArrayList<>(candidates.subList(0, k));
+                }
+            }
+        }
+        return scanAll(pts, lat, lng, k);
+    }
+
+    /** 当前事务提交后按最新状态增量更新；无事务时立即生效 */
+    public void refreshAfterCommit(Venue venue) {
+        Long id = venue.getId();
+        boolean indexed = venue.getStatus() == Venue.VenueStatus.ACTIVE
+                && venue.getLatitude() != null && venue.getLongitude() != null;
+        double lat = indexed ? venue.getLatitude().doubleValue() : 0;
+        double lng = indexed ? venue.getLongitude().doubleValue() : 0;
+        AfterCommit.run(() -> {
+            if (indexed) {
+                put(id, lat, lng);
+            } else {
+                remove(id);
+            }
+        });
+    }
+
+    public void removeAfterCommit(Long venueId) {
+        AfterCommit.run(() -> remove(venueId));
+    }
+
+    /** 定时全量重建，吸收其他实例的场馆修改 */
+    @Scheduled(fixedDelayString = "${saas.venue.geo-refresh-ms:600000}")
+    public void rebuild() {
+        Map<Long, Point> freshPoints = new ConcurrentHashMap<>();
+        Map<Long, Set<Long>> freshCells = new ConcurrentHashMap<>();
+        for (Venue v : venueRepository.findByStatus(Venue.VenueStatus.ACTIVE)) {
+            if (v.getLatitude() == null || v.getLongitude() == null) {
+                continue;
+            }
+            Point p = new Point(v.getLatitude().doubleValue(), v.getLongitude().doubleValue());
+            freshPoints.put(v.getId(), p);
+            freshCells.computeIfAbsent(p.cell, c -> ConcurrentHashMap.newKeySet()).add(v.getId());
+        }
+        synchronized (this) {
+            points = freshPoints;
+            cells = freshCells;
+            loadOnce.markLoaded();
+        }
+        log.debug("场馆空间索引重建完成，共 {} 个场馆", freshPoints.size());
+    }
+
+    public static double haversine(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private synchronized void put(Long id, double lat, double lng) {
+        Point p = new Point(lat, lng);
+        Point old = points.put(id, p);
+        if (old != null && old.cell != p.cell) {
+            Set<Long> ids = cells.get(old.cell);
+            if (ids != null) {
+                ids.remove(id);
+            }
+        }
+        cells.computeIfAbsent(p.cell, c -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private synchronized void remove(Long id) {
+        Point old = points.remove(id);
+        if (old != null) {
+            Set<Long> ids = cells.get(old.cell);
+            if (ids != null) {
+                ids.remove(id);
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        loadOnce.ensure(this::rebuild);
+    }
+
+    private List<Hit> scanAll(Map<Long, Point> pts, double lat, double lng, int k) {
+        List<Hit> hits = new ArrayList<>(pts.size());
+        pts.forEach((id, p) -> hits.add(new Hit(id, haversine(lat, lng, p.lat, p.lng))));
+        hits.sort(Comparator.comparingDouble(Hit::distanceMeters));
+        return hits.size() > k ? new ArrayList<>(hits.subList(0, k)) : hits;
+    }
+
+    /** 距查询点 cells 个格子范围内经度每度米数的下界系数 */
+    private static double cosAt(double lat, int cells) {
+        double edge = Math.min(Math.abs(lat) + cells * CELL_DEG, 89.9);
+        return Math.cos(Math.toRadians(edge));
+    }
+
+    private static int row(double lat) {
+        return Math.min(Math.max((int) Math.floor((lat + 90) / CELL_DEG), 0), ROWS - 1);
+    }
+
+    private static int col(double lng) {
+        return Math.floorMod((int) Math.floor((lng + 180) / CELL_DEG), COLS);
+    }
+
+    private static long cellKey(int row, int col) {
+        return (long) row * COLS + col;
+    }
+
+    public record Hit(Long venueId, double distanceMeters) {
+    }
+
+    private static final class Point {
+        private final double lat;
+        private final double lng;
+        private final long cell;
+
+        private Point(double lat, double lng) {
+            this.lat = lat;
+            this.lng = lng;
+            this.cell = cellKey(row(lat), col(lng));
+        }
+    }
+}
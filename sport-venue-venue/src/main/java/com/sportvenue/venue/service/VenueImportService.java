@@ -0,0 +1,363 @@
+package com.sportvenue.venue.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sportvenue.common.exception.BusinessException;
+import com.sportvenue.venue.dto.VenueImportResultDTO;
+import com.sportvenue.venue.dto.VenueQueryDTO;
+import com.sportvenue.venue.entity.Venue;
+import com.sportvenue.venue.repository.VenueBatchWriter;
+import com.sportvenue.venue.repository.VenueExportQuery;
+import com.sportvenue.venue.repository.VenueRepository;
+import com.sportvenue.venue.util.Csv;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * 场馆批量导入导出。
+ * 导入：CSV / JSON 逐条解析，按 VenueValidator 校验，按商户预加载一次已有名称查重，
+ * 攒满一批走 JDBC batch 插入（每批一个短事务），逐行记录失败原因；结束后统一重建场馆索引。
+ * 导出：JDBC 流式结果集逐行写出 CSV / JSON
+ */
+@Slf4j
+@Service
+public class VenueImportService {
+
+    public static final String CSV = "csv";
+    public static final String JSON = "json";
+
+    private static final int MAX_ERRORS = 1000;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String[] EXPORT_COLUMNS = {
+            "id", "name", "description", "type", "spaceType", "chargeType", "merchantId", "merchantName",
+            "address", "longitude", "latitude", "phone", "openTime", "closeTime", "status", "capacity",
+            "currentOccupancy", "area", "facilities", "tags", "rating", "ratingCount",
+            "reservationEnabled", "checkInEnabled", "pointsEnabled", "createTime"};
+
+    @Autowired
+    private VenueRepository venueRepository;
+    @Autowired
+    private VenueBatchWriter venueBatchWriter;
+    @Autowired
+    private VenueExportQuery venueExportQuery;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private VenueGeoIndex geoIndex;
+    @Autowired
+    private VenueRanking ranking;
+    @Autowired
+    private VenueSearchIndex searchIndex;
+    @Autowired
+    private VenueCache venueCache;
+    @Autowired
+    private MerchantNameCache nameCache;
+
+    @Value("${saas.venue.import-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 导入文件流；merchantId 非空时所有行强制归属该商户（B端），否则以行内商户为准
+     */
+    public VenueImportResultDTO importStream(InputStream in, String format, Long merchantId, String merchantName)
+            throws IOException {
+        Importer importer = new Importer(merchantId, merchantName);
+        if (JSON.equalsIgnoreCase(format)) {
+            readJson(in, importer);
+        } else if (CSV.equalsIgnoreCase(format)) {
+            readCsv(in, importer);
+        } else {
+            throw new BusinessException("仅支持 csv、json 格式");
+        }
+        return importer.finish();
+    }
+
+    /** 导入已解析的场馆列表 */
+    public VenueImportResultDTO importList(List<Venue> venues, Long merchantId, String merchantName) {
+        Importer importer = new Importer(merchantId, merchantName);
+        int row = 0;
+        for (Venue v : venues) {
+            importer.accept(++row, v);
+        }
+        return importer.finish();
+    }
+
+    /** 按条件流式导出 */
+    public void export(VenueQueryDTO query, String format, OutputStream out) throws IOException {
+        if (JSON.equalsIgnoreCase(format)) {
+            ObjectWriter writer = objectMapper.writerFor(Venue.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            JsonGenerator gen = objectMapper.getFactory().createGenerator(out);
+            gen.writeStartArray();
+            venueExportQuery.stream(query, v -> {
+                try {
+                    writer.writeValue(gen, v);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            gen.writeEndArray();
+            gen.flush();
+            return;
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // BOM 让 Excel 按 UTF-8 打开
+        writer.write('\uFEFF');
+        Csv.writeRow(writer, (Object[]) EXPORT_COLUMNS);
+        venueExportQuery.stream(query, v -> {
+            try {
+                Csv.writeRow(writer, v.getId(), v.getName(), v.getDescription(), v.getType(), v.getSpaceType(),
+                        v.getChargeType(), v.getMerchantId(), v.getMerchantName(), v.getAddress(),
+                        v.getLongitude(), v.getLatitude(), v.getPhone(), v.getOpenTime(), v.getCloseTime(),
+                        v.getStatus(), v.getCapacity(), v.getCurrentOccupancy(), v.getArea(), v.getFacilities(),
+                        v.getTags(), v.getRating(), v.getRatingCount(), v.getReservationEnabled(),
+                        v.getCheckInEnabled(), v.getPointsEnabled(),
+                        v.getCreateTime() == null ? null : v.getCreateTime().format(TIME));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void readCsv(InputStream in, Importer importer) throws IOException {
+        Csv.Reader reader = new Csv.Reader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> header = reader.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        int row = 1;
+        List<String> fields;
+        while ((fields = reader.next()) != null) {
+            row++;
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            Venue venue;
+            try {
+                venue = fromCsv(columns, fields);
+            } catch (IllegalArgumentException e) {
+                importer.reject(row, cell(columns, fields, "name"), e.getMessage());
+                continue;
+            }
+            importer.accept(row, venue);
+        }
+    }
+
+    private void readJson(InputStream in, Importer importer) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BusinessException("JSON 须为场馆数组");
+            }
+            int row = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                row++;
+                JsonNode node = objectMapper.readTree(parser);
+                try {
+                    importer.accept(row, objectMapper.treeToValue(node, Venue.class));
+                } catch (IOException | IllegalArgumentException e) {
+                    importer.reject(row, node.path("name").asText(null), "格式错误：" + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Venue fromCsv(Map<String, Integer> columns, List<String> fields) {
+        Venue v = new Venue();
+        v.setName(trim(cell(columns, fields, "name")));
+        v.setDescription(cell(columns, fields, "description"));
+        v.setType(enumCell(Venue.VenueType.class, columns, fields, "type"));
+        v.setSpaceType(enumCell(Venue.VenueSpaceType.class, columns, fields, "spaceType"));
+        v.setChargeType(enumCell(Venue.VenueChargeType.class, columns, fields, "chargeType"));
+        String merchantId = cell(columns, fields, "merchantId");
+        v.setMerchantId(StringUtils.hasText(merchantId) ? parse("merchantId", () -> Long.valueOf(merchantId.trim())) : null);
+        v.setMerchantName(cell(columns, fields, "merchantName"));
+        v.setAddress(trim(cell(columns, fields, "address")));
+        v.setLongitude(decimalCell(columns, fields, "longitude"));
+        v.setLatitude(decimalCell(columns, fields, "latitude"));
+        v.setPhone(trim(cell(columns, fields, "phone")));
+        v.setOpenTime(trim(cell(columns, fields, "openTime")));
+        v.setCloseTime(trim(cell(columns, fields, "closeTime")));
+        v.setStatus(enumCell(Venue.VenueStatus.class, columns, fields, "status"));
+        String capacity = cell(columns, fields, "capacity");
+        v.setCapacity(StringUtils.hasText(capacity) ? parse("capacity", () -> Integer.valueOf(capacity.trim())) : null);
+        v.setArea(decimalCell(columns, fields, "area"));
+        v.setFacilities(cell(columns, fields, "facilities"));
+        v.setImages(cell(columns, fields, "images"));
+        v.setTags(cell(columns, fields, "tags"));
+        v.setReservationEnabled(boolCell(columns, fields, "reservationEnabled"));
+        v.setCheckInEnabled(boolCell(columns, fields, "checkInEnabled"));
+        v.setPointsEnabled(boolCell(columns, fields, "pointsEnabled"));
+        return v;
+    }
+
+    private static String cell(Map<String, Integer> columns, List<String> fields, String name) {
+        Integer i = columns.get(name.toLowerCase(Locale.ROOT));
+        return i == null || i >= fields.size() || fields.get(i).isEmpty() ? null : fields.get(i);
+    }
+
+    private static String trim(String s) {
+        return s == null ? null : s.trim();
+    }
+
+    private static <E extends Enum<E>> E enumCell(Class<E> type, Map<String, Integer> columns, List<String> fields,
+                                                  String name) {
+        String value = cell(columns, fields, name);
+        return StringUtils.hasText(value)
+                ? parse(name, () -> Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT))) : null;
+    }
+
+    private static BigDecimal decimalCell(Map<String, Integer> columns, List<String> fields, String name) {
+        String value = cell(columns, fields, name);
+        return StringUtils.hasText(value) ? parse(name, () -> new BigDecimal(value.trim())) : null;
+    }
+
+    private static Boolean boolCell(Map<String, Integer> columns, List<String> fields, String name) {
+        String value = trim(cell(columns, fields, name));
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "y", "yes", "是" -> true;
+            case "false", "0", "n", "no", "否" -> false;
+            default -> throw new IllegalArgumentException("字段 " + name + " 格式错误：" + value);
+        };
+    }
+
+    private static <T> T parse(String name, Supplier<T> parser) {
+        try {
+            return parser.get();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("字段 " + name + " 格式错误");
+        }
+    }
+
+    /**
+     * 一次导入的状态：按商户缓存的已有名称、待写入批次、失败明细
+     */
+    private final class Importer {
+        private final Long merchantId;
+        private final String merchantName;
+        private final Map<Long, Set<String>> names = new HashMap<>();
+        private final List<Venue> batch = new ArrayList<>();
+        private final List<Integer> batchRows = new ArrayList<>();
+        private final List<VenueImportResultDTO.RowError> errors = new ArrayList<>();
+        private final Set<Long> touchedMerchants = new HashSet<>();
+        private int total;
+        private int imported;
+        private int failed;
+
+        private Importer(Long merchantId, String merchantName) {
+            this.merchantId = merchantId;
+            this.merchantName = merchantName;
+        }
+
+        private void accept(int row, Venue venue) {
+            total++;
+            if (merchantId != null) {
+                venue.setMerchantId(merchantId);
+                venue.setMerchantName(merchantName);
+            }
+            try {
+                VenueValidator.validate(venue);
+            } catch (BusinessException e) {
+                error(row, venue.getName(), e.getMessage());
+                return;
+            }
+            venue.setName(venue.getName().trim());
+            Set<String> existing = names.computeIfAbsent(venue.getMerchantId(),
+                    id -> new HashSet<>(venueRepository.findNamesByMerchantId(id)));
+            if (!existing.add(venue.getName())) {
+                error(row, venue.getName(), "场馆名称已存在");
+                return;
+            }
+            batch.add(venue);
+            batchRows.add(row);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        /** 解析失败的行 */
+        private void reject(int row, String name, String message) {
+            total++;
+            error(row, name, message);
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> venueBatchWriter.insertVenues(batch, batchSize));
+                imported += batch.size();
+                batch.forEach(v -> touchedMerchants.add(v.getMerchantId()));
+            } catch (DataAccessException e) {
+                // 整批回滚后逐行重试，只有真正写不进去的行记为失败
+                log.warn("场馆导入批次写入失败，{} 行逐行重试：{}", batch.size(), e.getMostSpecificCause().getMessage());
+                for (int i = 0; i < batch.size(); i++) {
+                    insertOne(batchRows.get(i), batch.get(i));
+                }
+            }
+            batch.clear();
+            batchRows.clear();
+        }
+
+        private void insertOne(int row, Venue v) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> venueBatchWriter.insertVenues(List.of(v), 1));
+                imported++;
+                touchedMerchants.add(v.getMerchantId());
+            } catch (DataAccessException e) {
+                names.get(v.getMerchantId()).remove(v.getName());
+                error(row, v.getName(), "写入失败：" + e.getMostSpecificCause().getMessage());
+            }
+        }
+
+        private void error(int row, String name, String message) {
+            failed++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(VenueImportResultDTO.RowError.builder().row(row).name(name).message(message).build());
+            }
+        }
+
+        private VenueImportResultDTO finish() {
+            flush();
+            if (imported > 0) {
+                // JDBC 写入绕过了单条 refreshAfterCommit，整体重建一次
+                geoIndex.rebuild();
+                ranking.rebuild();
+                searchIndex.rebuild();
+                for (Long m : touchedMerchants) {
+                    nameCache.evict(m);
+                    venueCache.evictAfterCommit(null, m);
+                }
+            }
+            log.info("场馆导入完成：共 {} 行，成功 {}，失败 {}", total, imported, failed);
+            return VenueImportResultDTO.builder()
+                    .total(total).imported(imported).failed(failed).errors(errors).build();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.sportvenue.venue.service;
+
+import com.sportvenue.common.exception.BusinessException;
+import com.sportvenue.venue.entity.Venue;
+import com.sportvenue.venue.repository.VenueBatchWriter;
+import com.sportvenue.venue.repository.VenueRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 场馆实时人数计数器：以 Redis 计数为准，闸机进出用 Lua 原子增减并校验容量上限，
+ * 变动的场馆记入脏集合，由定时任务批量回写 venues.current_occupancy。
+ * 计数不存在时（首次使用或 Redis 数据丢失）以库内最近一次回写的值为起点
+ */
+@Slf4j
+@Component
+public class VenueOccupancyCounter {
+
+    private static final String COUNTER_KEY = "venue:occupancy:";
+    private static final String DIRTY_KEY = "venue:occupancy:dirty";
+
+    /**
+     * KEYS[1] 计数，KEYS[2] 脏集合；ARGV: 增量、容量（<0 不限）、起始值（为空表示未查库）、场馆 ID。
+     * 返回 {是否生效, 当前人数}：进场超出容量时拒绝，离场最少减到 0；计数不存在且未给起始值时返回 {-1, 0}
+     */
+    private static final RedisScript<List> ADJUST = new DefaultRedisScript<>(
+            "local cur = redis.call('GET', KEYS[1]) " +
+            "if cur then cur = tonumber(cur) elseif ARGV[3] == '' then return {-1, 0} " +
+            "else cur = tonumber(ARGV[3]) end " +
+            "local delta = tonumber(ARGV[1]) " +
+            "local cap = tonumber(ARGV[2]) " +
+            "local nxt = cur + delta " +
+            "if delta > 0 and cap >= 0 and nxt > cap then return {0, cur} end " +
+            "if nxt < 0 then nxt = 0 end " +
+            "redis.call('SET', KEYS[1], nxt) " +
+            "redis.call('SADD', KEYS[2], ARGV[4]) " +
+            "return {1, nxt}", List.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private VenueBatchWriter venueBatchWriter;
+    @Autowired
+    private VenueRepository venueRepository;
+
+    @Value("${saas.venue.occupancy-flush-batch:500}")
+    private int flushBatch;
+
+    /** 进场（delta>0）或离场（delta<0），返回调整后的人数；满员时抛出业务异常 */
+    public int adjust(Venue venue, int delta) {
+        List<?> result = adjust(venue, delta, "");
+        if (result != null && !result.isEmpty() && ((Number) result.get(0)).intValue() == -1) {
+            // 计数不存在：以库内值为起点重试，只在首次使用或 Redis 数据丢失时查库
+            result = adjust(venue, delta, String.valueOf(seed(venue.getId())));
+        }
+        if (result == null || result.size() < 2) {
+            throw new IllegalStateException("场馆人数计数失败: " + venue.getId());
+        }
+        int current = ((Number) result.get(1)).intValue();
+        if (((Number) result.get(0)).intValue() == 0) {
+            throw new BusinessException("场馆已满，当前人数 " + current);
+        }
+        return current;
+    }
+
+    private List<?> adjust(Venue venue, int delta, String seed) {
+        return stringRedisTemplate.execute(ADJUST, List.of(COUNTER_KEY + venue.getId(), DIRTY_KEY),
+                String.valueOf(delta), String.valueOf(capacity(venue)), seed, String.valueOf(venue.getId()));
+    }
+
+    /** 人工校正为指定人数 */
+    public void set(Venue venue, int occupancy) {
+        int capacity = capacity(venue);
+        if (occupancy < 0 || (capacity >= 0 && occupancy > capacity)) {
+            throw new BusinessException("使用人数超出范围");
+        }
+        stringRedisTemplate.opsForValue().set(COUNTER_KEY + venue.getId(), String.valueOf(occupancy));
+        stringRedisTemplate.opsForSet().add(DIRTY_KEY, String.valueOf(venue.getId()));
+    }
+
+    /** 实时人数，计数不存在时取库内值 */
+    public int current(Venue venue) {
+        try {
+            String value = stringRedisTemplate.opsForValue().get(COUNTER_KEY + venue.getId());
+            if (value != null) {
+                return Integer.parseInt(value);
+            }
+        } catch (RuntimeException e) {
+            log.warn("读取场馆人数计数失败，venueId={}：{}", venue.getId(), e.getMessage());
+        }
+        return seed(venue.getId());
+    }
+
+    /** 批量读取实时人数，没有计数的场馆不在结果中 */
+    public Map<Long, Integer> current(Collection<Long> venueIds) {
+        List<Long> ids = new ArrayList<>(venueIds);
+        List<String> values = stringRedisTemplate.opsForValue().multiGet(ids.stream().map(id -> COUNTER_KEY + id).toList());
+        Map<Long, Integer> result = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String value = values == null ? null : values.get(i);
+            if (value != null) {
+                result.put(ids.get(i), Integer.valueOf(value));
+            }
+        }
+        return result;
+    }
+
+    /** 把脏集合中的场馆人数批量回写数据库，失败的重新放回脏集合等下一轮 */
+    @Scheduled(fixedDelayString = "${saas.venue.occupancy-flush-ms:5000}")
+    public void flush() {
+        int total = 0;
+        while (true) {
+            List<String> ids = stringRedisTemplate.opsForSet().pop(DIRTY_KEY, flushBatch);
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            List<String> values = stringRedisTemplate.opsForValue().multiGet(ids.stream().map(id -> COUNTER_KEY + id).toList());
+            Map<Long, Integer> occupancy = new LinkedHashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                String value = values == null ? null : values.get(i);
+                if (value != null) {
+                    occupancy.put(Long.valueOf(ids.get(i)), Integer.valueOf(value));
+                }
+            }
+            try {
+                venueBatchWriter.updateOccupancy(occupancy, flushBatch);
+            } catch (RuntimeException e) {
+                stringRedisTemplate.opsForSet().add(DIRTY_KEY, ids.toArray(new String[0]));
+                log.error("场馆人数回写失败，{} 个场馆留待下次回写", ids.size(), e);
+                break;
+            }
+            total += occupancy.size();
+            if (ids.size() < flushBatch) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.debug("场馆人数回写完成，共 {} 个场馆", total);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("停机前回写场馆人数失败：{}", e.getMessage());
+        }
+    }
+
+    private static int capacity(Venue venue) {
+        return venue.getCapacity() == null || venue.getCapacity() <= 0 ? -1 : venue.getCapacity();
+    }
+
+    /** 传入的 Venue 可能是缓存快照，起始值直接从库内读取 */
+    private int seed(Long venueId) {
+        Integer occupancy = venueRepository.findCurrentOccupancy(venueId);
+        return occupancy == null ? 0 : occupancy;
+    }
+}
@@ -0,0 +1,155 @@
+package com.sportvenue.venue.service;
+
+import com.sportvenue.venue.entity.Booking;
+import com.sportvenue.venue.entity.Venue;
+import com.sportvenue.venue.repository.BookingRepository;
+import com.sportvenue.venue.repository.VenueRepository;
+import com.sportvenue.venue.util.AfterCommit;
+import com.sportvenue.venue.util.LoadOnce;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 营业中场馆排行：按评分、按综合分各维护一个有序集合，取前 K 名只遍历 K 个元素。
+ * 评分、状态变更在事务提交后增量调整；近 30 天订场量随定时重建刷新。
+ * 综合分 = 0.7 × 贝叶斯平均评分 / 5 + 0.3 × 近期订场量饱和值，评分人数少的场馆向先验评分收敛
+ */
+@Slf4j
+@Component
+public class VenueRanking {
+
+    public enum RankBy {
+        RATING, BLENDED
+    }
+
+    private static final int RECENT_DAYS = 30;
+    /** 贝叶斯平均的先验评分与先验票数 */
+    private static final double PRIOR_RATING = 3.0;
+    private static final double PRIOR_COUNT = 10;
+    /** 订场量达到该值时订场分取一半 */
+    private static final double BOOKING_HALF = 20;
+    private static final List<Booking.BookingStatus> BOOKED_STATUSES =
+            Arrays.asList(Booking.BookingStatus.BOOKED, Booking.BookingStatus.COMPLETED);
+
+    private static final Comparator<Rank> RATING_ORDER = Comparator
+            .comparingDouble(Rank::rating).reversed()
+            .thenComparing(Comparator.comparingInt(Rank::ratingCount).reversed())
+            .thenComparing(Rank::venueId);
+    private static final Comparator<Rank> BLENDED_ORDER = Comparator
+            .comparingDouble(Rank::blended).reversed()
+            .thenComparing(Rank::venueId);
+
+    @Autowired
+    private VenueRepository venueRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private volatile Map<Long, Rank> ranks = new ConcurrentHashMap<>();
+    private volatile NavigableSet<Rank> byRating = new ConcurrentSkipListSet<>(RATING_ORDER);
+    private volatile NavigableSet<Rank> byBlended = new ConcurrentSkipListSet<>(BLENDED_ORDER);
+    private final LoadOnce loadOnce = new LoadOnce();
+
+    /** 排名前 k 的场馆 ID */
+    public List<Long> top(RankBy rankBy, int k) {
+        ensureLoaded();
+        NavigableSet<Rank> set = rankBy == RankBy.BLENDED ? byBlended : byRating;
+        List<Long> ids = new ArrayList<>(k);
+        for (Rank r : set) {
+            if (ids.size() >= k) {
+                break;
+            }
+            ids.add(r.venueId());
+        }
+        return ids;
+    }
+
+    /** 当前事务提交后按场馆最新评分、状态调整排名；无事务时立即生效 */
+    public void refreshAfterCommit(Venue venue) {
+        Long id = venue.getId();
+        boolean ranked = venue.getStatus() == Venue.VenueStatus.ACTIVE;
+        double rating = venue.getRating() == null ? 0 : venue.getRating().doubleValue();
+        int count = venue.getRatingCount() == null ? 0 : venue.getRatingCount();
+        AfterCommit.run(() -> {
+            if (ranked) {
+                Rank old = ranks.get(id);
+                put(id, rating, count, old == null ? 0 : old.recentBookings());
+            } else {
+                remove(id);
+            }
+        });
+    }
+
+    public void removeAfterCommit(Long venueId) {
+        AfterCommit.run(() -> remove(venueId));
+    }
+
+    /** 定时全量重建：刷新近期订场量，并吸收其他实例的评分/状态修改 */
+    @Scheduled(fixedDelayString = "${saas.venue.ranking-refresh-ms:600000}")
+    public void rebuild() {
+        Map<Long, Long> bookings = new HashMap<>();
+        for (Object[] row : bookingRepository.countByVenueSince(
+                LocalDateTime.now().minusDays(RECENT_DAYS), BOOKED_STATUSES)) {
+            bookings.put((Long) row[0], (Long) row[1]);
+        }
+        Map<Long, Rank> freshRanks = new ConcurrentHashMap<>();
+        NavigableSet<Rank> freshRating = new ConcurrentSkipListSet<>(RATING_ORDER);
+        NavigableSet<Rank> freshBlended = new ConcurrentSkipListSet<>(BLENDED_ORDER);
+        for (Object[] row : venueRepository.findRankingRows(Venue.VenueStatus.ACTIVE)) {
+            Long id = (Long) row[0];
+            BigDecimal rating = (BigDecimal) row[1];
+            Integer count = (Integer) row[2];
+            Rank r = rank(id, rating == null ? 0 : rating.doubleValue(), count == null ? 0 : count,
+                    bookings.getOrDefault(id, 0L));
+            freshRanks.put(id, r);
+            freshRating.add(r);
+            freshBlended.add(r);
+        }
+        synchronized (this) {
+            ranks = freshRanks;
+            byRating = freshRating;
+            byBlended = freshBlended;
+            loadOnce.markLoaded();
+        }
+        log.debug("场馆排行重建完成，共 {} 个场馆", freshRanks.size());
+    }
+
+    private synchronized void put(Long id, double rating, int count, long recentBookings) {
+        Rank fresh = rank(id, rating, count, recentBookings);
+        Rank old = ranks.put(id, fresh);
+        if (old != null) {
+            byRating.remove(old);
+            byBlended.remove(old);
+        }
+        byRating.add(fresh);
+        byBlended.add(fresh);
+    }
+
+    private synchronized void remove(Long id) {
+        Rank old = ranks.remove(id);
+        if (old != null) {
+            byRating.remove(old);
+            byBlended.remove(old);
+        }
+    }
+
+    private void ensureLoaded() {
+        loadOnce.ensure(this::rebuild);
+    }
+
+    private static Rank rank(Long id, double rating, int count, long recentBookings) {
+        double bayes = (PRIOR_RATING * PRIOR_COUNT + rating * count) / (PRIOR_COUNT + count);
+        double bookingScore = recentBookings / (recentBookings + BOOKING_HALF);
+        return new Rank(id, rating, count, recentBookings, 0.7 * bayes / 5 + 0.3 * bookingScore);
+    }
+
+    private record Rank(Long venueId, double rating, int ratingCount, long recentBookings, double blended) {
+    }
+}
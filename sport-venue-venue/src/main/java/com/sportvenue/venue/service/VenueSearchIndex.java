@@ -0,0 +1,282 @@
+package com.sportvenue.venue.service;
+
+import com.sportvenue.venue.entity.Venue;
+import com.sportvenue.venue.repository.VenueRepository;
+import com.sportvenue.venue.util.AfterCommit;
+import com.sportvenue.venue.util.LoadOnce;
+import lombok.extern.slf4j.Slf4j;
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 营业中场馆的内存倒排索引，覆盖名称、地址、设施：
+ * 汉字按单字/双字切分，字母数字按前缀与三元组切分，名称另加全拼与首字母前缀，
+ * 因此可用“体育馆”“tiyuguan”“tyg”检索同一场馆；三元组用于容忍拼写错误。
+ * 场馆增改在事务提交后增量更新，定时全量重建吸收其他实例的修改
+ */
+@Slf4j
+@Component
+public class VenueSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int TEXT_WEIGHT = 1;
+    private static final int MAX_PREFIX = 12;
+    /** 命中权重低于最佳结果的该比例，或低于查询总权重的 MIN_COVERAGE 时不返回 */
+    private static final double MIN_RELATIVE = 0.5;
+    private static final double MIN_COVERAGE = 0.2;
+
+    private static final HanyuPinyinOutputFormat PINYIN = new HanyuPinyinOutputFormat();
+
+    static {
+        PINYIN.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        PINYIN.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        PINYIN.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    @Autowired
+    private VenueRepository venueRepository;
+
+    /** token -> (venueId -> 权重) */
+    private volatile Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+    /** venueId -> 该场馆写入的 token，用于增量删除 */
+    private volatile Map<Long, Set<String>> docs = new ConcurrentHashMap<>();
+    private final LoadOnce loadOnce = new LoadOnce();
+
+    /** 按相关度降序返回至多 limit 个场馆 ID */
+    public List<Long> search(String keyword, int limit) {
+        ensureLoaded();
+        Map<String, Double> query = queryTokens(keyword);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Map<Long, Integer>> index = postings;
+        Map<Long, double[]> scores = new HashMap<>();
+        double totalWeight = 0;
+        for (Map.Entry<String, Double> q : query.entrySet()) {
+            totalWeight += q.getValue();
+            Map<Long, Integer> docsForToken = index.get(q.getKey());
+            if (docsForToken == null) {
+                continue;
+            }
+            for (Map.Entry<Long, Integer> d : docsForToken.entrySet()) {
+                // [0] 相关度，[1] 命中的查询词权重
+                double[] s = scores.computeIfAbsent(d.getKey(), k -> new double[2]);
+                s[0] += q.getValue() * d.getValue();
+                s[1] += q.getValue();
+            }
+        }
+        double best = 0;
+        for (double[] s : scores.values()) {
+            best = Math.max(best, s[1]);
+        }
+        double minHit = Math.max(best * MIN_RELATIVE, totalWeight * MIN_COVERAGE);
+        List<Map.Entry<Long, double[]>> hits = new ArrayList<>();
+        for (Map.Entry<Long, double[]> e : scores.entrySet()) {
+            if (e.getValue()[1] >= minHit) {
+                hits.add(e);
+            }
+        }
+        hits.sort((a, b) -> Double.compare(b.getValue()[0], a.getValue()[0]));
+        List<Long> ids = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            ids.add(hits.get(i).getKey());
+        }
+        return ids;
+    }
+
+    /** 当前事务提交后按场馆最新内容重建其索引项；无事务时立即生效 */
+    public void refreshAfterCommit(Venue venue) {
+        Long id = venue.getId();
+        Map<String, Integer> tokens = venue.getStatus() == Venue.VenueStatus.ACTIVE ? docTokens(venue) : Map.of();
+        AfterCommit.run(() -> {
+            remove(id);
+            if (!tokens.isEmpty()) {
+                put(id, tokens);
+            }
+        });
+    }
+
+    public void removeAfterCommit(Long venueId) {
+        AfterCommit.run(() -> remove(venueId));
+    }
+
+    @Scheduled(fixedDelayString = "${saas.venue.search-refresh-ms:600000}")
+    public void rebuild() {
+        Map<String, Map<Long, Integer>> freshPostings = new ConcurrentHashMap<>();
+        Map<Long, Set<String>> freshDocs = new ConcurrentHashMap<>();
+        for (Venue v : venueRepository.findByStatus(Venue.VenueStatus.ACTIVE)) {
+            Map<String, Integer> tokens = docTokens(v);
+            tokens.forEach((t, w) -> freshPostings.computeIfAbsent(t, k -> new ConcurrentHashMap<>()).put(v.getId(), w));
+            freshDocs.put(v.getId(), ConcurrentHashMap.newKeySet());
+            freshDocs.get(v.getId()).addAll(tokens.keySet());
+        }
+        synchronized (this) {
+            postings = freshPostings;
+            docs = freshDocs;
+            loadOnce.markLoaded();
+        }
+        log.debug("场馆搜索索引重建完成，共 {} 个场馆，{} 个词项", freshDocs.size(), freshPostings.size());
+    }
+
+    private synchronized void put(Long id, Map<String, Integer> tokens) {
+        tokens.forEach((t, w) -> postings.computeIfAbsent(t, k -> new ConcurrentHashMap<>()).put(id, w));
+        Set<String> keys = ConcurrentHashMap.newKeySet();
+        keys.addAll(tokens.keySet());
+        docs.put(id, keys);
+    }
+
+    private synchronized void remove(Long id) {
+        Set<String> old = docs.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String t : old) {
+            Map<Long, Integer> p = postings.get(t);
+            if (p != null) {
+                p.remove(id);
+                if (p.isEmpty()) {
+                    postings.remove(t);
+                }
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        loadOnce.ensure(this::rebuild);
+    }
+
+    /** 场馆的全部 token 及权重，同一 token 取最高字段权重 */
+    private Map<String, Integer> docTokens(Venue v) {
+        Map<String, Integer> tokens = new HashMap<>();
+        addText(tokens, v.getName(), NAME_WEIGHT);
+        addPinyin(tokens, v.getName());
+        addText(tokens, v.getAddress(), TEXT_WEIGHT);
+        addText(tokens, v.getFacilities(), TEXT_WEIGHT);
+        return tokens;
+    }
+
+    private void addText(Map<String, Integer> tokens, String text, int weight) {
+        if (text == null) {
+            return;
+        }
+        for (String run : runs(text)) {
+            if (isHan(run.charAt(0))) {
+                for (int i = 0; i < run.length(); i++) {
+                    tokens.merge("c:" + run.charAt(i), weight, Math::max);
+                    if (i + 1 < run.length()) {
+                        tokens.merge("c:" + run.substring(i, i + 2), weight, Math::max);
+                    }
+                }
+            } else {
+                addWord(tokens, run, weight);
+            }
+        }
+    }
+
+    /** 名称的全拼与首字母，按前缀写入；非汉字原样拼接 */
+    private void addPinyin(Map<String, Integer> tokens, String name) {
+        if (name == null) {
+            return;
+        }
+        StringBuilder full = new StringBuilder();
+        StringBuilder initials = new StringBuilder();
+        for (String run : runs(name)) {
+            for (int i = 0; i < run.length(); i++) {
+                char ch = run.charAt(i);
+                String py = isHan(ch) ? pinyin(ch) : String.valueOf(ch);
+                if (py == null) {
+                    continue;
+                }
+                full.append(py);
+                initials.append(py.charAt(0));
+            }
+        }
+        if (full.length() > 0) {
+            addWord(tokens, full.toString(), NAME_WEIGHT - 1);
+            addWord(tokens, initials.toString(), NAME_WEIGHT - 1);
+        }
+    }
+
+    /** 字母数字词：前缀（前缀匹配）+ 三元组（容错） */
+    private void addWord(Map<String, Integer> tokens, String word, int weight) {
+        for (int len = 1; len <= Math.min(word.length(), MAX_PREFIX); len++) {
+            tokens.merge("p:" + word.substring(0, len), weight, Math::max);
+        }
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            tokens.merge("t:" + word.substring(i, i + 3), weight, Math::max);
+        }
+    }
+
+    /** 查询词：汉字取双字（单字查询取单字），字母数字取整词前缀并以三元组兜底拼写错误 */
+    private Map<String, Double> queryTokens(String keyword) {
+        Map<String, Double> query = new LinkedHashMap<>();
+        if (keyword == null) {
+            return query;
+        }
+        for (String run : runs(keyword)) {
+            if (isHan(run.charAt(0))) {
+                if (run.length() == 1) {
+                    query.put("c:" + run, 1.0);
+                }
+                for (int i = 0; i + 2 <= run.length(); i++) {
+                    query.put("c:" + run.substring(i, i + 2), 1.0);
+                }
+            } else {
+                String word = run.length() > MAX_PREFIX ? run.substring(0, MAX_PREFIX) : run;
+                query.put("p:" + word, 2.0);
+                for (int i = 0; i + 3 <= run.length(); i++) {
+                    query.putIfAbsent("t:" + run.substring(i, i + 3), 0.5);
+                }
+            }
+        }
+        return query;
+    }
+
+    /** 归一化后按汉字 / 字母数字切成连续片段 */
+    private static List<String> runs(String text) {
+        List<String> runs = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean curHan = false;
+        for (char ch : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            boolean han = isHan(ch);
+            boolean word = han || Character.isLetterOrDigit(ch);
+            if (cur.length() > 0 && (!word || han != curHan)) {
+                runs.add(cur.toString());
+                cur.setLength(0);
+            }
+            if (word) {
+                cur.append(ch);
+                curHan = han;
+            }
+        }
+        if (cur.length() > 0) {
+            runs.add(cur.toString());
+        }
+        return runs;
+    }
+
+    private static boolean isHan(char ch) {
+        return Character.UnicodeScript.of(ch) == Character.UnicodeScript.HAN;
+    }
+
+    /** 单个汉字的拼音，多音字取第一个读音 */
+    private static String pinyin(char ch) {
+        try {
+            String[] py = PinyinHelper.toHanyuPinyinStringArray(ch, PINYIN);
+            return py == null || py.length == 0 ? null : py[0];
+        } catch (BadHanyuPinyinOutputFormatCombination e) {
+            return null;
+        }
+    }
+
+}
@@ -2,10 +2,14 @@ package com.sportvenue.venue.service;
 
 import com.sportvenue.common.model.ApiResponse;
 import com.sportvenue.venue.dto.VenueDTO;
+import com.sportvenue.venue.dto.VenueImportResultDTO;
 import com.sportvenue.venue.dto.VenueQueryDTO;
 import com.sportvenue.venue.entity.Venue;
 import org.springframework.data.domain.Page;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
@@ -62,14 +66,15 @@ public interface VenueService {
     ApiResponse<List<VenueDTO>> getVenuesByStatus(Venue.VenueStatus status);
     
     /**
-     * 搜索附近场馆
+     * 搜索附近场馆，半径单位为米，按距离升序
      */
-    ApiResponse<List<VenueDTO>> searchNearbyVenues(BigDecimal longitude, BigDecimal latitude, BigDecimal radius);
+    ApiResponse<List<VenueDTO>> searchNearbyVenues(BigDecimal longitude, BigDecimal latitude,
+                                                   BigDecimal radiusMeters, Integer limit);
     
     /**
-     * 搜索热门场馆
+     * 搜索热门场馆，rankBy 为 rating（默认）或 blended（综合分）
      */
-    ApiResponse<List<VenueDTO>> getPopularVenues(Integer limit);
+    ApiResponse<List<VenueDTO>> getPopularVenues(Integer limit, String rankBy);
     
     /**
      * 根据场馆名称搜索
@@ -96,6 +101,11 @@ public interface VenueService {
      */
     ApiResponse<Void> updateVenueOccupancy(Long id, Integer occupancy);
     
+    /**
+     * 闸机进出：原子增减场馆人数（delta>0 进场，delta<0 离场），返回当前人数
+     */
+    ApiResponse<Integer> adjustVenueOccupancy(Long id, int delta);
+    
     /**
      * 更新场馆评分
      */
@@ -164,12 +174,17 @@ public interface VenueService {
     /**
      * 导入场馆数据
      */
-    ApiResponse<Void> importVenues(List<Venue> venues);
+    ApiResponse<VenueImportResultDTO> importVenues(List<Venue> venues);
+    
+    /**
+     * 导入场馆文件（csv / json），merchantId 非空时全部归属该商户
+     */
+    ApiResponse<VenueImportResultDTO> importVenues(InputStream in, String format, Long merchantId, String merchantName);
     
     /**
-     * 导出场馆数据
+     * 导出场馆数据，按 format（csv / json）流式写入 out
      */
-    ApiResponse<List<Venue>> exportVenues(VenueQueryDTO queryDTO);
+    void exportVenues(VenueQueryDTO queryDTO, String format, OutputStream out) throws IOException;
     
     /**
      * 场馆数据同步
@@ -0,0 +1,50 @@
+package com.sportvenue.venue.service;
+
+import com.sportvenue.common.exception.BusinessException;
+import com.sportvenue.venue.entity.Venue;
+import org.springframework.util.StringUtils;
+
+/**
+ * 场馆必填项与字段长度校验，新建、修改与批量导入共用
+ */
+public final class VenueValidator {
+
+    private VenueValidator() {
+    }
+
+    public static void validate(Venue venue) {
+        if (!StringUtils.hasText(venue.getName())) {
+            throw new BusinessException("场馆名称不能为空");
+        }
+        if (venue.getType() == null) {
+            throw new BusinessException("场馆类型不能为空");
+        }
+        if (venue.getSpaceType() == null) {
+            throw new BusinessException("场馆空间类型不能为空");
+        }
+        if (venue.getChargeType() == null) {
+            throw new BusinessException("场馆收费类型不能为空");
+        }
+        if (venue.getMerchantId() == null) {
+            throw new BusinessException("商户ID不能为空");
+        }
+        if (!StringUtils.hasText(venue.getAddress())) {
+            throw new BusinessException("场馆地址不能为空");
+        }
+        // 与 venues 表列长度一致，超长在这里拦下，不必等到写库失败
+        checkLength(venue.getName(), 100, "场馆名称");
+        checkLength(venue.getDescription(), 500, "场馆描述");
+        checkLength(venue.getMerchantName(), 100, "商户名称");
+        checkLength(venue.getAddress(), 200, "场馆地址");
+        checkLength(venue.getPhone(), 20, "联系电话");
+        checkLength(venue.getOpenTime(), 10, "开放时间");
+        checkLength(venue.getCloseTime(), 10, "关闭时间");
+        checkLength(venue.getFacilities(), 500, "设施");
+    }
+
+    private static void checkLength(String value, int max, String label) {
+        if (value != null && value.length() > max) {
+            throw new BusinessException(label + "不能超过 " + max + " 个字符");
+        }
+    }
+}
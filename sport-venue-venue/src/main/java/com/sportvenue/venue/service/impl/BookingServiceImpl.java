@@ -2,26 +2,41 @@ package com.sportvenue.venue.service.impl;
 
 import com.sportvenue.common.exception.BusinessException;
 import com.sportvenue.common.model.ApiResponse;
+import com.sportvenue.common.sequence.OrderNoGenerator;
 import com.sportvenue.venue.dto.booking.BookingCalendarDTO;
 import com.sportvenue.venue.dto.booking.BookingCreateRequest;
+import com.sportvenue.venue.dto.booking.BookingCursorPageDTO;
 import com.sportvenue.venue.dto.booking.BookingDTO;
+import com.sportvenue.venue.dto.booking.BookingRecurringRequest;
+import com.sportvenue.venue.dto.booking.BookingRecurringResultDTO;
 import com.sportvenue.venue.entity.*;
+import com.sportvenue.venue.event.BookingCreatedEvent;
 import com.sportvenue.venue.repository.*;
 import com.sportvenue.venue.service.BookingService;
+import com.sportvenue.venue.service.BookingSlotClaimService;
+import com.sportvenue.venue.service.CourtOccupancyIndex;
+import com.sportvenue.venue.service.MerchantNameCache;
 import com.sportvenue.venue.util.SecurityUtils;
+import com.sportvenue.venue.util.SlotGrid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,8 +46,11 @@ import java.util.stream.Collectors;
 public class BookingServiceImpl implements BookingService {
 
     private static final DateTimeFormatter DT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter CURSOR_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
     private static final List<Booking.BookingStatus> OCCUPYING =
             Arrays.asList(Booking.BookingStatus.BOOKED, Booking.BookingStatus.COMPLETED);
+    private static final int MAX_RECURRING = 200;
+    private static final int MAX_RECURRING_SPAN_DAYS = 366;
     private static final List<Booking.BookingStatus> PERF_STATUSES =
             Arrays.asList(Booking.BookingStatus.BOOKED, Booking.BookingStatus.COMPLETED);
 
@@ -41,11 +59,24 @@ public class BookingServiceImpl implements BookingService {
     @Autowired
     private CourtRepository courtRepository;
     @Autowired
-    private VenueRepository venueRepository;
-    @Autowired
     private TeamRepository teamRepository;
     @Autowired
     private MatchResultRepository matchResultRepository;
+    @Autowired
+    private CourtOccupancyIndex occupancyIndex;
+    @Autowired
+    private BookingSlotClaimService slotClaimService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private MerchantNameCache nameCache;
+    @Autowired
+    private OrderNoGenerator orderNoGenerator;
+    @Autowired
+    private BookingBatchWriter bookingBatchWriter;
+
+    @Value("${saas.booking.batch-size:500}")
+    private int batchSize;
 
     @Override
     public ApiResponse<BookingCalendarDTO> calendar(Long courtId, String date) {
@@ -61,25 +92,22 @@ public class BookingServiceImpl implements BookingService {
             LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
             List<Booking> bookings = bookingRepository.findDayOccupancy(courtId, dayStart, dayEnd, OCCUPYING);
 
-            List<BookingCalendarDTO.Slot> slots = new ArrayList<>();
-            for (int hour = 0; hour < 24; hour++) {
-                for (int minute : new int[]{0, 30}) {
-                    LocalDateTime start = LocalDateTime.of(day, LocalTime.of(hour, minute));
-                    LocalDateTime end = start.plusMinutes(30);
-                    Booking hit = bookings.stream()
-                            .filter(b -> b.getStartTime().isBefore(end) && b.getEndTime().isAfter(start))
-                            .findFirst().orElse(null);
-                    slots.add(BookingCalendarDTO.Slot.builder()
-                            .startTime(start.format(DT))
-                            .endTime(end.format(DT))
-                            .occupied(hit != null)
-                            .bookingId(hit == null ? null : hit.getId())
-                            .orderNo(hit == null ? null : hit.getOrderNo())
-                            .bookType(hit == null ? null : hit.getBookType().name())
-                            .title(hit == null ? null : slotTitle(hit))
-                            .status(hit == null ? null : hit.getStatus().name())
-                            .build());
-                }
+            Booking[] owners = SlotGrid.owners(day, bookings);
+            String dayStr = day.toString();
+            String nextDayStr = day.plusDays(1).toString();
+            List<BookingCalendarDTO.Slot> slots = new ArrayList<>(SlotGrid.SLOTS_PER_DAY);
+            for (int i = 0; i < SlotGrid.SLOTS_PER_DAY; i++) {
+                Booking hit = owners[i];
+                slots.add(BookingCalendarDTO.Slot.builder()
+                        .startTime(SlotGrid.startTime(dayStr, i))
+                        .endTime(SlotGrid.endTime(dayStr, nextDayStr, i))
+                        .occupied(hit != null)
+                        .bookingId(hit == null ? null : hit.getId())
+                        .orderNo(hit == null ? null : hit.getOrderNo())
+                        .bookType(hit == null ? null : hit.getBookType().name())
+                        .title(hit == null ? null : slotTitle(hit))
+                        .status(hit == null ? null : hit.getStatus().name())
+                        .build());
             }
             return ApiResponse.success(BookingCalendarDTO.builder()
                     .courtId(court.getId())
@@ -100,21 +128,58 @@ public class BookingServiceImpl implements BookingService {
                                               String bookType, int page, int size) {
         try {
             Long merchantId = SecurityUtils.requireMerchantId();
-            LocalDateTime start = null;
-            LocalDateTime end = null;
-            if (StringUtils.hasText(date)) {
-                LocalDate d = LocalDate.parse(date);
-                start = d.atStartOfDay();
-                end = d.plusDays(1).atStartOfDay();
-            }
-            Booking.BookingStatus st = StringUtils.hasText(status) ? Booking.BookingStatus.valueOf(status) : null;
-            Booking.BookType bt = StringUtils.hasText(bookType) ? Booking.BookType.valueOf(bookType) : null;
             Page<Booking> result = bookingRepository.search(
-                    merchantId, venueId, courtId, st, bt, null, start, end,
+                    searchFilter(merchantId, date, venueId, courtId, status, bookType),
                     PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100)));
-            Map<Long, String> courtNames = courtNameMap(merchantId);
-            Map<Long, String> venueNames = venueNameMap(merchantId);
-            return ApiResponse.success(result.map(b -> toDto(b, courtNames, venueNames)));
+            MerchantNameCache.Names names = nameCache.get(merchantId);
+            Map<Long, Long> matchIds = matchIdMap(merchantId, result.getContent());
+            return ApiResponse.success(result.map(b -> toDto(b, names, matchIds.get(b.getId()))));
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error("筛选参数不合法");
+        } catch (BusinessException e) {
+            return ApiResponse.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("查询订场列表失败", e);
+            return ApiResponse.error("查询订场列表失败");
+        }
+    }
+
+    /** 键集分页：按 (startTime, id) 游标续读，深翻页耗时与首页一致 */
+    @Override
+    public ApiResponse<BookingCursorPageDTO> listByCursor(String date, Long venueId, Long courtId, String status,
+                                                         String bookType, String cursor, int size) {
+        try {
+            Long merchantId = SecurityUtils.requireMerchantId();
+            int limit = Math.min(Math.max(size, 1), 100);
+            LocalDateTime afterStart = null;
+            Long afterId = null;
+            if (StringUtils.hasText(cursor)) {
+                int sep = cursor.indexOf('_');
+                try {
+                    afterStart = LocalDateTime.parse(cursor.substring(0, sep), CURSOR_TIME);
+                    afterId = Long.valueOf(cursor.substring(sep + 1));
+                } catch (RuntimeException e) {
+                    throw new BusinessException("分页游标不合法");
+                }
+            }
+            List<Booking> rows = bookingRepository.searchAfter(
+                    searchFilter(merchantId, date, venueId, courtId, status, bookType), afterStart, afterId, limit + 1);
+            boolean hasMore = rows.size() > limit;
+            if (hasMore) {
+                rows = rows.subList(0, limit);
+            }
+            MerchantNameCache.Names names = nameCache.get(merchantId);
+            Map<Long, Long> matchIds = matchIdMap(merchantId, rows);
+            List<BookingDTO> items = new ArrayList<>(rows.size());
+            for (Booking b : rows) {
+                items.add(toDto(b, names, matchIds.get(b.getId())));
+            }
+            Booking last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+            return ApiResponse.success(BookingCursorPageDTO.builder()
+                    .items(items)
+                    .hasMore(hasMore)
+                    .nextCursor(hasMore ? last.getStartTime().format(CURSOR_TIME) + "_" + last.getId() : null)
+                    .build());
         } catch (IllegalArgumentException e) {
             return ApiResponse.error("筛选参数不合法");
         } catch (BusinessException e) {
@@ -134,7 +199,7 @@ public class BookingServiceImpl implements BookingService {
                     && !SecurityUtils.currentUserId().equals(booking.getLiaisonStaffId())) {
                 // 店员可看自己操作或对接的单；列表已过滤，详情再兜底
             }
-            return ApiResponse.success(toDto(booking, courtNameMap(merchantId), venueNameMap(merchantId)));
+            return ApiResponse.success(toDto(booking));
         } catch (BusinessException e) {
             return ApiResponse.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
@@ -147,66 +212,31 @@ public class BookingServiceImpl implements BookingService {
     public ApiResponse<BookingDTO> create(BookingCreateRequest request) {
         try {
             Long merchantId = SecurityUtils.requireMerchantId();
-            if (request.getCourtId() == null) {
-                throw new BusinessException("请选择片场");
-            }
-            Court court = courtRepository.findByIdAndMerchantId(request.getCourtId(), merchantId)
-                    .orElseThrow(() -> new BusinessException("片场不存在"));
-            if (court.getStatus() != Court.CourtStatus.ACTIVE) {
-                throw new BusinessException(400, "片场已停用");
-            }
+            Court court = requireActiveCourt(request.getCourtId(), merchantId);
             LocalDateTime start = parseDateTime(request.getStartTime());
             LocalDateTime end = parseDateTime(request.getEndTime());
             validateSlot(start, end);
 
-            List<Booking> conflicts = bookingRepository.findConflicts(
-                    court.getId(), start, end, OCCUPYING, null);
-            if (!conflicts.isEmpty()) {
-                Booking c = conflicts.get(0);
-                throw new BusinessException(400, "与订场单 " + c.getOrderNo() + " 时间冲突");
+            if (!occupancyIndex.isFree(court.getId(), start, end)) {
+                // 仅冲突时回库取单号用于提示
+                List<Booking> conflicts = bookingRepository.findConflicts(
+                        court.getId(), start, end, OCCUPYING, null);
+                String orderNo = conflicts.isEmpty() ? "" : " " + conflicts.get(0).getOrderNo();
+                throw new BusinessException(400, "与订场单" + orderNo + " 时间冲突");
             }
 
-            Booking.BookType bookType = Booking.BookType.valueOf(request.getBookType());
-            Booking booking = new Booking();
-            booking.setOrderNo(nextOrderNo());
-            booking.setMerchantId(merchantId);
-            booking.setVenueId(court.getVenueId());
-            booking.setCourtId(court.getId());
+            Booking booking = newBooking(merchantId, court, request.getBookType(), request.getTeamId(),
+                    request.getPersonName(), request.getPersonPhone(), request.getAmount(), request.getRemark());
+            booking.setOrderNo(orderNoGenerator.next("BK", 4));
             booking.setStartTime(start);
             booking.setEndTime(end);
-            booking.setBookType(bookType);
-            booking.setAmount(request.getAmount() == null ? BigDecimal.ZERO : request.getAmount());
-            booking.setRemark(request.getRemark());
-            booking.setSource("B");
-            booking.setStatus(Booking.BookingStatus.BOOKED);
-            booking.setOperatorId(SecurityUtils.currentUserId());
-            booking.setOperatorName(SecurityUtils.currentOperatorName());
-
-            if (bookType == Booking.BookType.TEAM) {
-                if (request.getTeamId() == null) {
-                    throw new BusinessException("请选择球队");
-                }
-                Team team = teamRepository.findByIdAndMerchantId(request.getTeamId(), merchantId)
-                        .orElseThrow(() -> new BusinessException("球队不存在"));
-                if (team.getStatus() != Team.TeamStatus.ACTIVE) {
-                    throw new BusinessException(400, "球队已停用");
-                }
-                booking.setTeamId(team.getId());
-                booking.setTeamName(team.getName());
-                booking.setLiaisonStaffId(team.getLiaisonStaffId());
-                booking.setLiaisonStaffName(team.getLiaisonStaffName());
-            } else if (bookType == Booking.BookType.PERSON) {
-                if (!StringUtils.hasText(request.getPersonName()) || !StringUtils.hasText(request.getPersonPhone())) {
-                    throw new BusinessException("散客姓名和电话不能为空");
-                }
-                booking.setPersonName(request.getPersonName().trim());
-                booking.setPersonPhone(request.getPersonPhone().trim());
-            } else {
-                throw new BusinessException("订场类型不合法");
-            }
 
+            if (!slotClaimService.claim(booking)) {
+                throw new BusinessException(400, "该时段刚被其他订场占用，请刷新后重试");
+            }
             Booking saved = bookingRepository.save(booking);
-            return ApiResponse.success(toDto(saved, courtNameMap(merchantId), venueNameMap(merchantId)));
+            eventPublisher.publishEvent(new BookingCreatedEvent(saved.getId(), saved.getEndTime()));
+            return ApiResponse.success(toDto(saved));
         } catch (IllegalArgumentException e) {
             return ApiResponse.error("参数不合法");
         } catch (BusinessException e) {
@@ -217,6 +247,101 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    /**
+     * 周期订场：展开全部场次后用一次区间查询比对冲突，单号整段预取，
+     * 占位与订场单均走 JDBC batch 写入。skipConflicts=false 且存在冲突时整批不建，只返回冲突明细
+     */
+    @Override
+    public ApiResponse<BookingRecurringResultDTO> createRecurring(BookingRecurringRequest request) {
+        try {
+            Long merchantId = SecurityUtils.requireMerchantId();
+            Court court = requireActiveCourt(request.getCourtId(), merchantId);
+            List<LocalDateTime[]> occurrences = expandOccurrences(request);
+            Booking template = newBooking(merchantId, court, request.getBookType(), request.getTeamId(),
+                    request.getPersonName(), request.getPersonPhone(), request.getAmount(), request.getRemark());
+
+            // 按整天取区间，查出的占用同时用于预热内存位图，claimAll 预占时不再逐天回库
+            LocalDateTime rangeStart = occurrences.get(0)[0].toLocalDate().atStartOfDay();
+            LocalDateTime rangeEnd = occurrences.get(occurrences.size() - 1)[1].toLocalDate().plusDays(1).atStartOfDay();
+            List<Booking> existing = bookingRepository.findRangeOccupancy(List.of(court.getId()),
+                    rangeStart, rangeEnd, OCCUPYING);
+            Map<LocalDate, List<Booking>> existingByDay = new HashMap<>();
+            for (Booking b : existing) {
+                for (LocalDate d = b.getStartTime().toLocalDate(); d.atStartOfDay().isBefore(b.getEndTime()); d = d.plusDays(1)) {
+                    existingByDay.computeIfAbsent(d, k -> new ArrayList<>()).add(b);
+                }
+            }
+            List<BookingRecurringResultDTO.Conflict> conflicts = new ArrayList<>();
+            List<LocalDateTime[]> free = new ArrayList<>(occurrences.size());
+            for (LocalDateTime[] o : occurrences) {
+                Booking hit = null;
+                for (Booking b : existingByDay.getOrDefault(o[0].toLocalDate(), List.of())) {
+                    if (b.getStartTime().isBefore(o[1]) && b.getEndTime().isAfter(o[0])) {
+                        hit = b;
+                        break;
+                    }
+                }
+                if (hit == null) {
+                    free.add(o);
+                } else {
+                    conflicts.add(conflict(o, hit.getOrderNo()));
+                }
+            }
+            if (free.isEmpty() || (!conflicts.isEmpty() && !request.isSkipConflicts())) {
+                return ApiResponse.success(recurringResult(occurrences.size(), List.of(), conflicts));
+            }
+
+            List<String> orderNos = orderNoGenerator.next("BK", 4, free.size());
+            List<Booking> bookings = new ArrayList<>(free.size());
+            for (int i = 0; i < free.size(); i++) {
+                bookings.add(occurrence(template, orderNos.get(i), free.get(i)[0], free.get(i)[1]));
+            }
+            Set<LocalDate> days = new HashSet<>();
+            for (Booking b : bookings) {
+                for (LocalDate d = b.getStartTime().toLocalDate(); d.atStartOfDay().isBefore(b.getEndTime()); d = d.plusDays(1)) {
+                    days.add(d);
+                }
+            }
+            occupancyIndex.seedDays(court.getId(), days, existing);
+            Set<String> lost = slotClaimService.claimAll(bookings);
+            if (!lost.isEmpty()) {
+                List<Booking> kept = new ArrayList<>(bookings.size() - lost.size());
+                for (Booking b : bookings) {
+                    if (lost.contains(b.getOrderNo())) {
+                        conflicts.add(conflict(new LocalDateTime[]{b.getStartTime(), b.getEndTime()}, null));
+                    } else {
+                        kept.add(b);
+                    }
+                }
+                if (kept.isEmpty() || !request.isSkipConflicts()) {
+                    // 已写入的占位随事务回滚，内存预占由回滚回调撤销
+                    TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                    return ApiResponse.success(recurringResult(occurrences.size(), List.of(), conflicts));
+                }
+                bookings = kept;
+            }
+
+            bookingBatchWriter.insertBookings(bookings, batchSize);
+            List<Booking> saved = bookingRepository.findByOrderNoInOrderByStartTimeAsc(
+                    bookings.stream().map(Booking::getOrderNo).collect(Collectors.toList()));
+            MerchantNameCache.Names names = nameCache.get(merchantId);
+            List<BookingDTO> created = new ArrayList<>(saved.size());
+            for (Booking b : saved) {
+                eventPublisher.publishEvent(new BookingCreatedEvent(b.getId(), b.getEndTime()));
+                created.add(toDto(b, names, null));
+            }
+            conflicts.sort(Comparator.comparing(BookingRecurringResultDTO.Conflict::getStartTime));
+            return ApiResponse.success(recurringResult(occurrences.size(), created, conflicts));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return ApiResponse.error("参数不合法");
+        } catch (BusinessException e) {
+            return ApiResponse.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("创建周期订场失败", e);
+            return ApiResponse.error("创建周期订场失败");
+        }
+    }
+
     @Override
     public ApiResponse<BookingDTO> cancel(Long id, Map<String, Object> body) {
         try {
@@ -234,7 +359,8 @@ public class BookingServiceImpl implements BookingService {
                 booking.setCancelReason(String.valueOf(body.get("reason")));
             }
             Booking saved = bookingRepository.save(booking);
-            return ApiResponse.success(toDto(saved, courtNameMap(merchantId), venueNameMap(merchantId)));
+            slotClaimService.release(saved);
+            return ApiResponse.success(toDto(saved));
         } catch (BusinessException e) {
             return ApiResponse.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
@@ -253,7 +379,7 @@ public class BookingServiceImpl implements BookingService {
             }
             booking.setStatus(Booking.BookingStatus.COMPLETED);
             Booking saved = bookingRepository.save(booking);
-            return ApiResponse.success(toDto(saved, courtNameMap(merchantId), venueNameMap(merchantId)));
+            return ApiResponse.success(toDto(saved));
         } catch (BusinessException e) {
             return ApiResponse.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
@@ -266,6 +392,164 @@ public class BookingServiceImpl implements BookingService {
         return PERF_STATUSES;
     }
 
+    private BookingSearchFilter searchFilter(Long merchantId, String date, Long venueId, Long courtId,
+                                             String status, String bookType) {
+        BookingSearchFilter.BookingSearchFilterBuilder filter = BookingSearchFilter.builder()
+                .merchantId(merchantId)
+                .venueId(venueId)
+                .courtId(courtId)
+                .status(StringUtils.hasText(status) ? Booking.BookingStatus.valueOf(status) : null)
+                .bookType(StringUtils.hasText(bookType) ? Booking.BookType.valueOf(bookType) : null);
+        if (StringUtils.hasText(date)) {
+            LocalDate d = LocalDate.parse(date);
+            filter.start(d.atStartOfDay()).end(d.plusDays(1).atStartOfDay());
+        }
+        return filter.build();
+    }
+
+    private Court requireActiveCourt(Long courtId, Long merchantId) {
+        if (courtId == null) {
+            throw new BusinessException("请选择片场");
+        }
+        Court court = courtRepository.findByIdAndMerchantId(courtId, merchantId)
+                .orElseThrow(() -> new BusinessException("片场不存在"));
+        if (court.getStatus() != Court.CourtStatus.ACTIVE) {
+            throw new BusinessException(400, "片场已停用");
+        }
+        return court;
+    }
+
+    /** 校验订场类型与球队/散客信息，得到不含单号和时段的订场单 */
+    private Booking newBooking(Long merchantId, Court court, String type, Long teamId,
+                               String personName, String personPhone, BigDecimal amount, String remark) {
+        Booking.BookType bookType = Booking.BookType.valueOf(type);
+        Booking booking = new Booking();
+        booking.setMerchantId(merchantId);
+        booking.setVenueId(court.getVenueId());
+        booking.setCourtId(court.getId());
+        booking.setBookType(bookType);
+        booking.setAmount(amount == null ? BigDecimal.ZERO : amount);
+        booking.setRemark(remark);
+        booking.setSource("B");
+        booking.setStatus(Booking.BookingStatus.BOOKED);
+        booking.setOperatorId(SecurityUtils.currentUserId());
+        booking.setOperatorName(SecurityUtils.currentOperatorName());
+
+        if (bookType == Booking.BookType.TEAM) {
+            if (teamId == null) {
+                throw new BusinessException("请选择球队");
+            }
+            Team team = teamRepository.findByIdAndMerchantId(teamId, merchantId)
+                    .orElseThrow(() -> new BusinessException("球队不存在"));
+            if (team.getStatus() != Team.TeamStatus.ACTIVE) {
+                throw new BusinessException(400, "球队已停用");
+            }
+            booking.setTeamId(team.getId());
+            booking.setTeamName(team.getName());
+            booking.setLiaisonStaffId(team.getLiaisonStaffId());
+            booking.setLiaisonStaffName(team.getLiaisonStaffName());
+        } else if (bookType == Booking.BookType.PERSON) {
+            if (!StringUtils.hasText(personName) || !StringUtils.hasText(personPhone)) {
+                throw new BusinessException("散客姓名和电话不能为空");
+            }
+            booking.setPersonName(personName.trim());
+            booking.setPersonPhone(personPhone.trim());
+        } else {
+            throw new BusinessException("订场类型不合法");
+        }
+        return booking;
+    }
+
+    private Booking occurrence(Booking template, String orderNo, LocalDateTime start, LocalDateTime end) {
+        Booking b = new Booking();
+        b.setOrderNo(orderNo);
+        b.setMerchantId(template.getMerchantId());
+        b.setVenueId(template.getVenueId());
+        b.setCourtId(template.getCourtId());
+        b.setStartTime(start);
+        b.setEndTime(end);
+        b.setBookType(template.getBookType());
+        b.setTeamId(template.getTeamId());
+        b.setTeamName(template.getTeamName());
+        b.setPersonName(template.getPersonName());
+        b.setPersonPhone(template.getPersonPhone());
+        b.setOperatorId(template.getOperatorId());
+        b.setOperatorName(template.getOperatorName());
+        b.setLiaisonStaffId(template.getLiaisonStaffId());
+        b.setLiaisonStaffName(template.getLiaisonStaffName());
+        b.setStatus(template.getStatus());
+        b.setAmount(template.getAmount());
+        b.setSource(template.getSource());
+        b.setRemark(template.getRemark());
+        return b;
+    }
+
+    /** 按日期区间、周几与间隔周数展开场次，按时间升序 */
+    private List<LocalDateTime[]> expandOccurrences(BookingRecurringRequest request) {
+        if (!StringUtils.hasText(request.getStartDate()) || !StringUtils.hasText(request.getEndDate())
+                || !StringUtils.hasText(request.getStartTime()) || !StringUtils.hasText(request.getEndTime())) {
+            throw new BusinessException("日期区间和时段不能为空");
+        }
+        LocalDate from = LocalDate.parse(request.getStartDate());
+        LocalDate to = LocalDate.parse(request.getEndDate());
+        if (to.isBefore(from)) {
+            throw new BusinessException("结束日期不能早于开始日期");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_RECURRING_SPAN_DAYS) {
+            throw new BusinessException(400, "周期跨度不能超过一年");
+        }
+        LocalTime startTime = LocalTime.parse(request.getStartTime());
+        LocalTime endTime = LocalTime.parse(request.getEndTime());
+        validateSlot(from.atTime(startTime), from.atTime(endTime));
+
+        Set<DayOfWeek> weekdays = EnumSet.allOf(DayOfWeek.class);
+        if (request.getWeekdays() != null && !request.getWeekdays().isEmpty()) {
+            weekdays = EnumSet.noneOf(DayOfWeek.class);
+            for (Integer w : request.getWeekdays()) {
+                if (w == null || w < 1 || w > 7) {
+                    throw new BusinessException("周几取值为 1-7");
+                }
+                weekdays.add(DayOfWeek.of(w));
+            }
+        }
+        int interval = request.getIntervalWeeks() == null || request.getIntervalWeeks() < 1
+                ? 1 : request.getIntervalWeeks();
+        LocalDate firstMonday = from.with(DayOfWeek.MONDAY);
+        List<LocalDateTime[]> result = new ArrayList<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            long week = ChronoUnit.WEEKS.between(firstMonday, d.with(DayOfWeek.MONDAY));
+            if (week % interval != 0 || !weekdays.contains(d.getDayOfWeek())) {
+                continue;
+            }
+            if (result.size() >= MAX_RECURRING) {
+                throw new BusinessException(400, "单次最多创建 " + MAX_RECURRING + " 场");
+            }
+            result.add(new LocalDateTime[]{d.atTime(startTime), d.atTime(endTime)});
+        }
+        if (result.isEmpty()) {
+            throw new BusinessException("所选区间内没有符合条件的场次");
+        }
+        return result;
+    }
+
+    private BookingRecurringResultDTO.Conflict conflict(LocalDateTime[] slot, String orderNo) {
+        return BookingRecurringResultDTO.Conflict.builder()
+                .startTime(slot[0].format(DT))
+                .endTime(slot[1].format(DT))
+                .conflictOrderNo(orderNo)
+                .build();
+    }
+
+    private BookingRecurringResultDTO recurringResult(int occurrences, List<BookingDTO> created,
+                                                      List<BookingRecurringResultDTO.Conflict> conflicts) {
+        return BookingRecurringResultDTO.builder()
+                .occurrences(occurrences)
+                .createdCount(created.size())
+                .created(created)
+                .conflicts(conflicts)
+                .build();
+    }
+
     private void validateSlot(LocalDateTime start, LocalDateTime end) {
         if (start == null || end == null) {
             throw new BusinessException("开始/结束时间不能为空");
@@ -296,13 +580,6 @@ public class BookingServiceImpl implements BookingService {
         return LocalDateTime.parse(v, DT);
     }
 
-    private synchronized String nextOrderNo() {
-        String prefix = "BK" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
-        Long max = bookingRepository.findMaxSeqByPrefix(prefix);
-        long next = (max == null ? 0 : max) + 1;
-        return prefix + String.format("%04d", next);
-    }
-
     private Booking requireBooking(Long id, Long merchantId) {
         return bookingRepository.findByIdAndMerchantId(id, merchantId)
                 .orElseThrow(() -> new BusinessException("订场单不存在"));
@@ -315,27 +592,33 @@ public class BookingServiceImpl implements BookingService {
         return b.getPersonName();
     }
 
-    private Map<Long, String> courtNameMap(Long merchantId) {
-        return courtRepository.findByMerchantIdOrderBySortOrderAscIdAsc(merchantId).stream()
-                .collect(Collectors.toMap(Court::getId, Court::getName, (a, b) -> a));
-    }
-
-    private Map<Long, String> venueNameMap(Long merchantId) {
-        return venueRepository.findByMerchantId(merchantId).stream()
-                .collect(Collectors.toMap(Venue::getId, Venue::getName, (a, b) -> a));
+    private Map<Long, Long> matchIdMap(Long merchantId, List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = bookings.stream().map(Booking::getId).collect(Collectors.toList());
+        Map<Long, Long> result = new HashMap<>();
+        for (Object[] row : matchResultRepository.findIdsByBookingIds(merchantId, ids)) {
+            result.put((Long) row[0], (Long) row[1]);
+        }
+        return result;
     }
 
-    private BookingDTO toDto(Booking b, Map<Long, String> courtNames, Map<Long, String> venueNames) {
+    private BookingDTO toDto(Booking b) {
         Long matchId = matchResultRepository.findByBookingIdAndMerchantId(b.getId(), b.getMerchantId())
                 .map(MatchResult::getId).orElse(null);
+        return toDto(b, nameCache.get(b.getMerchantId()), matchId);
+    }
+
+    private BookingDTO toDto(Booking b, MerchantNameCache.Names names, Long matchId) {
         return BookingDTO.builder()
                 .id(b.getId())
                 .orderNo(b.getOrderNo())
                 .merchantId(b.getMerchantId())
                 .venueId(b.getVenueId())
-                .venueName(venueNames.getOrDefault(b.getVenueId(), ""))
+                .venueName(names.venue(b.getVenueId()))
                 .courtId(b.getCourtId())
-                .courtName(courtNames.getOrDefault(b.getCourtId(), ""))
+                .courtName(names.court(b.getCourtId()))
                 .startTime(b.getStartTime().format(DT))
                 .endTime(b.getEndTime().format(DT))
                 .bookType(b.getBookType().name())
@@ -7,8 +7,9 @@ import com.sportvenue.venue.dto.court.CourtSaveRequest;
 import com.sportvenue.venue.entity.Court;
 import com.sportvenue.venue.entity.Venue;
 import com.sportvenue.venue.repository.CourtRepository;
-import com.sportvenue.venue.repository.VenueRepository;
 import com.sportvenue.venue.service.CourtService;
+import com.sportvenue.venue.service.MerchantNameCache;
+import com.sportvenue.venue.service.VenueCache;
 import com.sportvenue.venue.util.SecurityUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,7 +30,10 @@ public class CourtServiceImpl implements CourtService {
     private CourtRepository courtRepository;
 
     @Autowired
-    private VenueRepository venueRepository;
+    private VenueCache venueCache;
+
+    @Autowired
+    private MerchantNameCache nameCache;
 
     @Override
     public ApiResponse<List<CourtDTO>> list(Long venueId) {
@@ -81,6 +85,7 @@ public class CourtServiceImpl implements CourtService {
             court.setStatus(Court.CourtStatus.ACTIVE);
             court.setCreateBy(SecurityUtils.currentUserId());
             Court saved = courtRepository.save(court);
+            nameCache.evict(merchantId);
             return ApiResponse.success(toDto(saved, Map.of(venue.getId(), venue.getName())));
         } catch (BusinessException e) {
             return ApiResponse.error(e.getCode(), e.getMessage());
@@ -103,6 +108,7 @@ public class CourtServiceImpl implements CourtService {
             apply(court, request);
             court.setUpdateBy(SecurityUtils.currentUserId());
             Court saved = courtRepository.save(court);
+            nameCache.evict(merchantId);
             Map<Long, String> names = venueNameMap(merchantId);
             return ApiResponse.success(toDto(saved, names));
         } catch (BusinessException e) {
@@ -122,6 +128,7 @@ public class CourtServiceImpl implements CourtService {
             court.setStatus(Court.CourtStatus.valueOf(status));
             court.setUpdateBy(SecurityUtils.currentUserId());
             courtRepository.save(court);
+            nameCache.evict(merchantId);
             return ApiResponse.success(null);
         } catch (IllegalArgumentException e) {
             return ApiResponse.error("状态不合法");
@@ -154,8 +161,7 @@ public class CourtServiceImpl implements CourtService {
         if (venueId == null) {
             throw new BusinessException("请选择场馆");
         }
-        Venue venue = venueRepository.findById(venueId)
-                .orElseThrow(() -> new BusinessException("场馆不存在"));
+        Venue venue = venueCache.require(venueId);
         if (!merchantId.equals(venue.getMerchantId())) {
             throw new BusinessException("场馆不属于当前商户");
         }
@@ -163,7 +169,7 @@ public class CourtServiceImpl implements CourtService {
     }
 
     private Map<Long, String> venueNameMap(Long merchantId) {
-        return venueRepository.findByMerchantId(merchantId).stream()
+        return venueCache.byMerchant(merchantId).stream()
                 .collect(Collectors.toMap(Venue::getId, Venue::getName, (a, b) -> a));
     }
 
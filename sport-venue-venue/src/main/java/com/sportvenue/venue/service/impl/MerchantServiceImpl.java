@@ -6,9 +6,14 @@ import com.sportvenue.venue.dto.merchant.*;
 import com.sportvenue.venue.entity.*;
 import com.sportvenue.venue.repository.*;
 import com.sportvenue.venue.service.MerchantFeatureService;
+import com.sportvenue.venue.service.MerchantNameCache;
 import com.sportvenue.venue.service.MerchantService;
 import com.sportvenue.venue.service.PlatformAuditService;
 import com.sportvenue.venue.service.PlatformCommissionService;
+import com.sportvenue.venue.service.VenueCache;
+import com.sportvenue.venue.service.VenueGeoIndex;
+import com.sportvenue.venue.service.VenueRanking;
+import com.sportvenue.venue.service.VenueSearchIndex;
 import com.sportvenue.venue.util.SecretCrypto;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +54,16 @@ public class MerchantServiceImpl implements MerchantService {
     private SecretCrypto secretCrypto;
     @Autowired
     private PlatformCommissionService platformCommissionService;
+    @Autowired
+    private VenueCache venueCache;
+    @Autowired
+    private MerchantNameCache nameCache;
+    @Autowired
+    private VenueGeoIndex geoIndex;
+    @Autowired
+    private VenueRanking ranking;
+    @Autowired
+    private VenueSearchIndex searchIndex;
 
     @Override
     public ApiResponse<List<Merchant>> getMerchants() {
@@ -182,7 +197,14 @@ public class MerchantServiceImpl implements MerchantService {
         venue.setPhone(fv.getPhone());
         venue.setDescription(fv.getDescription());
         venue.setStatus(Venue.VenueStatus.ACTIVE);
-        return venueRepository.save(venue).getId();
+        Venue saved = venueRepository.save(venue);
+        // 与 VenueServiceImpl.createVenue 一致：提交后刷新缓存和内存索引
+        nameCache.evict(saved.getMerchantId());
+        geoIndex.refreshAfterCommit(saved);
+        ranking.refreshAfterCommit(saved);
+        searchIndex.refreshAfterCommit(saved);
+        venueCache.evictAfterCommit(saved.getId(), saved.getMerchantId());
+        return saved.getId();
     }
 
     @Override
@@ -7,8 +7,9 @@ import com.sportvenue.venue.dto.sales.ProductRequest;
 import com.sportvenue.venue.entity.Product;
 import com.sportvenue.venue.entity.Venue;
 import com.sportvenue.venue.repository.ProductRepository;
-import com.sportvenue.venue.repository.VenueRepository;
+import com.sportvenue.venue.service.CashierCatalog;
 import com.sportvenue.venue.service.ProductService;
+import com.sportvenue.venue.service.VenueCache;
 import com.sportvenue.venue.util.SecurityUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,7 +33,10 @@ public class ProductServiceImpl implements ProductService {
     private ProductRepository productRepository;
 
     @Autowired
-    private VenueRepository venueRepository;
+    private VenueCache venueCache;
+
+    @Autowired
+    private CashierCatalog cashierCatalog;
 
     @Override
     public ApiResponse<Page<ProductDTO>> listProducts(Long venueId, String category, String status,
@@ -110,6 +114,7 @@ public class ProductServiceImpl implements ProductService {
             product.setUpdateBy(SecurityUtils.currentUserId());
 
             Product saved = productRepository.save(product);
+            cashierCatalog.evictAfterCommit(merchantId);
             String venueName = resolveVenueName(merchantId, saved.getVenueId());
             return ApiResponse.success(ProductDTO.from(saved, venueName));
         } catch (BusinessException e) {
@@ -133,6 +138,7 @@ public class ProductServiceImpl implements ProductService {
             applyRequest(product, request);
             product.setUpdateBy(SecurityUtils.currentUserId());
             Product saved = productRepository.save(product);
+            cashierCatalog.evictAfterCommit(merchantId);
             return ApiResponse.success(ProductDTO.from(saved, resolveVenueName(merchantId, saved.getVenueId())));
         } catch (BusinessException e) {
             return ApiResponse.error(e.getCode(), e.getMessage());
@@ -151,6 +157,7 @@ public class ProductServiceImpl implements ProductService {
             product.setStatus(status);
             product.setUpdateBy(SecurityUtils.currentUserId());
             productRepository.save(product);
+            cashierCatalog.evictAfterCommit(merchantId);
             return ApiResponse.success();
         } catch (BusinessException e) {
             return ApiResponse.error(e.getCode(), e.getMessage());
@@ -170,6 +177,7 @@ public class ProductServiceImpl implements ProductService {
             product.setStatus(Product.ProductStatus.OFF_SALE);
             product.setUpdateBy(SecurityUtils.currentUserId());
             productRepository.save(product);
+            cashierCatalog.evictAfterCommit(merchantId);
             return ApiResponse.success();
         } catch (BusinessException e) {
             return ApiResponse.error(e.getCode(), e.getMessage());
@@ -216,8 +224,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     private void assertVenueOwned(Long merchantId, Long venueId) {
-        Venue venue = venueRepository.findById(venueId)
-                .orElseThrow(() -> new BusinessException("场馆不存在"));
+        Venue venue = venueCache.require(venueId);
         if (!merchantId.equals(venue.getMerchantId())) {
             throw new BusinessException(403, "无权操作该场馆");
         }
@@ -225,7 +232,7 @@ public class ProductServiceImpl implements ProductService {
 
     private Map<Long, String> loadVenueNames(Long merchantId) {
         Map<Long, String> map = new HashMap<>();
-        venueRepository.findByMerchantId(merchantId).forEach(v -> map.put(v.getId(), v.getName()));
+        venueCache.byMerchant(merchantId).forEach(v -> map.put(v.getId(), v.getName()));
         return map;
     }
 
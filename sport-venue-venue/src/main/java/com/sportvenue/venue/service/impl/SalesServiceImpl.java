@@ -2,10 +2,13 @@ package com.sportvenue.venue.service.impl;
 
 import com.sportvenue.common.exception.BusinessException;
 import com.sportvenue.common.model.ApiResponse;
+import com.sportvenue.common.sequence.OrderNoGenerator;
 import com.sportvenue.venue.dto.sales.*;
 import com.sportvenue.venue.entity.*;
 import com.sportvenue.venue.repository.*;
+import com.sportvenue.venue.service.CashierCatalog;
 import com.sportvenue.venue.service.PlatformCommissionService;
+import com.sportvenue.venue.service.VenueCache;
 import com.sportvenue.venue.service.SalesService;
 import com.sportvenue.venue.util.SecurityUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -14,10 +17,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -29,11 +34,8 @@ import java.util.stream.Collectors;
 @Transactional
 public class SalesServiceImpl implements SalesService {
 
-    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
     private static final DateTimeFormatter DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    @Autowired
-    private ProductRepository productRepository;
     @Autowired
     private SalesOrderRepository salesOrderRepository;
     @Autowired
@@ -41,9 +43,15 @@ public class SalesServiceImpl implements SalesService {
     @Autowired
     private SalesPaymentRepository salesPaymentRepository;
     @Autowired
-    private VenueRepository venueRepository;
+    private SalesDailyRollup salesDailyRollup;
+    @Autowired
+    private VenueCache venueCache;
+    @Autowired
+    private CashierCatalog cashierCatalog;
     @Autowired
     private PlatformCommissionService platformCommissionService;
+    @Autowired
+    private OrderNoGenerator orderNoGenerator;
 
     @Override
     public ApiResponse<SalesPreviewResponse> preview(SalesPreviewRequest request) {
@@ -57,6 +65,7 @@ public class SalesServiceImpl implements SalesService {
                     .totalQty(cart.totalQty)
                     .itemCount(cart.items.size())
                     .items(cart.items)
+                    .cartToken(cart.token)
                     .build());
         } catch (BusinessException e) {
             return ApiResponse.error(e.getCode(), e.getMessage());
@@ -71,9 +80,12 @@ public class SalesServiceImpl implements SalesService {
         try {
             Long merchantId = SecurityUtils.requireMerchantId();
             BuiltCart cart = buildCart(merchantId, request);
+            if (StringUtils.hasText(request.getCartToken()) && !request.getCartToken().equals(cart.token)) {
+                throw new BusinessException(409, "商品价格已变更，请重新预览");
+            }
 
             SalesOrder order = new SalesOrder();
-            order.setOrderNo(nextOrderNo());
+            order.setOrderNo(orderNoGenerator.next("SO", 6));
             order.setMerchantId(merchantId);
             order.setVenueId(cart.venue.getId());
             order.setTotalAmount(cart.totalAmount);
@@ -144,7 +156,7 @@ public class SalesServiceImpl implements SalesService {
 
             SalesPayment payment = new SalesPayment();
             payment.setOrderId(order.getId());
-            payment.setPaymentNo(nextPaymentNo());
+            payment.setPaymentNo(orderNoGenerator.next("SP", 6));
             payment.setPayMethod(SalesOrder.PayMethod.CASH);
             payment.setAmount(order.getTotalAmount());
             payment.setStatus(SalesPayment.PaymentStatus.SUCCESS);
@@ -152,10 +164,12 @@ public class SalesServiceImpl implements SalesService {
             payment.setRemark("现金支付确认");
             salesPaymentRepository.save(payment);
 
+            List<SalesOrderItem> items = salesOrderItemRepository.findByOrderId(order.getId());
+            salesDailyRollup.add(order, items, 1);
             platformCommissionService.accrueFromSalesOrder(order);
 
             return ApiResponse.success(toOrderDto(order, venueName(order.getVenueId()),
-                    loadItemDtos(order.getId()), null, payment.getPaymentNo()));
+                    items.stream().map(this::toItemDto).collect(Collectors.toList()), null, payment.getPaymentNo()));
         } catch (BusinessException e) {
             return ApiResponse.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
@@ -229,7 +243,7 @@ public class SalesServiceImpl implements SalesService {
 
     @Override
     public ApiResponse<Page<SalesOrderDTO>> listOrders(String date, Long venueId, String status,
-                                                       String payMethod, int page, int size) {
+                                                       String payMethod, boolean summaryOnly, int page, int size) {
         try {
             Long merchantId = SecurityUtils.requireMerchantId();
             Long operatorFilter = SecurityUtils.isOwner() ? null : SecurityUtils.currentUserId();
@@ -243,11 +257,13 @@ public class SalesServiceImpl implements SalesService {
 
             Page<SalesOrder> orders = salesOrderRepository.searchOrders(
                     merchantId, venueId, statusEnum, payEnum, operatorFilter, start, end, PageRequest.of(page, size));
-            Map<Long, String> venueNames = venueRepository.findByMerchantId(merchantId).stream()
+            Map<Long, String> venueNames = venueCache.byMerchant(merchantId).stream()
                     .collect(Collectors.toMap(Venue::getId, Venue::getName, (a, b) -> a));
 
-            return ApiResponse.success(orders.map(o ->
-                    toOrderDto(o, venueNames.get(o.getVenueId()), loadItemDtos(o.getId()), null, null)));
+            Map<Long, List<SalesItemDTO>> items = summaryOnly ? Map.of() : loadItemDtos(orders.getContent());
+
+            return ApiResponse.success(orders.map(o -> toOrderDto(o, venueNames.get(o.getVenueId()),
+                    summaryOnly ? null : items.getOrDefault(o.getId(), List.of()), null, null)));
         } catch (BusinessException e) {
             return ApiResponse.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
@@ -262,22 +278,21 @@ public class SalesServiceImpl implements SalesService {
             Long merchantId = SecurityUtils.requireMerchantId();
             Long operatorFilter = SecurityUtils.isOwner() ? null : SecurityUtils.currentUserId();
             LocalDate day = parseDateRequired(date);
-            List<SalesOrder> orders = salesOrderRepository.findPaidOrdersInRange(
-                    merchantId, venueId, operatorFilter, day.atStartOfDay(), day.plusDays(1).atStartOfDay(),
-                    SalesOrder.OrderStatus.PAID);
 
             BigDecimal totalAmount = BigDecimal.ZERO;
             int totalQty = 0;
+            int orderCount = 0;
             Map<SalesOrder.PayMethod, Aggregate> byMethod = new EnumMap<>(SalesOrder.PayMethod.class);
             for (SalesOrder.PayMethod method : SalesOrder.PayMethod.values()) {
                 byMethod.put(method, new Aggregate());
             }
-            for (SalesOrder order : orders) {
-                totalAmount = totalAmount.add(order.getTotalAmount());
-                totalQty += order.getTotalQty();
-                Aggregate agg = byMethod.get(order.getPayMethod() == null ? SalesOrder.PayMethod.CASH : order.getPayMethod());
-                agg.count++;
-                agg.amount = agg.amount.add(order.getTotalAmount());
+            for (SalesDailyRollup.MethodTotal row : salesDailyRollup.summary(merchantId, venueId, operatorFilter, day)) {
+                totalAmount = totalAmount.add(row.amount());
+                totalQty += row.qty();
+                orderCount += row.orderCount();
+                Aggregate agg = byMethod.get(SalesOrder.PayMethod.valueOf(row.payMethod()));
+                agg.count += row.orderCount();
+                agg.amount = agg.amount.add(row.amount());
             }
 
             List<Map<String, Object>> methodRows = new ArrayList<>();
@@ -290,7 +305,7 @@ public class SalesServiceImpl implements SalesService {
                     .date(day.toString())
                     .venueId(venueId)
                     .venueName(venueName)
-                    .orderCount(orders.size())
+                    .orderCount(orderCount)
                     .totalAmount(totalAmount.setScale(2, RoundingMode.HALF_UP))
                     .totalQty(totalQty)
                     .byPayMethod(methodRows)
@@ -309,44 +324,8 @@ public class SalesServiceImpl implements SalesService {
             Long merchantId = SecurityUtils.requireMerchantId();
             Long operatorFilter = SecurityUtils.isOwner() ? null : SecurityUtils.currentUserId();
             LocalDate day = parseDateRequired(date);
-            List<SalesOrder> orders = salesOrderRepository.findPaidOrdersInRange(
-                    merchantId, venueId, operatorFilter, day.atStartOfDay(), day.plusDays(1).atStartOfDay(),
-                    SalesOrder.OrderStatus.PAID);
-            if (orders.isEmpty()) {
-                return ApiResponse.success(DailyProductReportDTO.builder()
-                        .date(day.toString())
-                        .items(Collections.emptyList())
-                        .totalAmount(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP))
-                        .totalQty(0)
-                        .build());
-            }
-
-            List<Long> orderIds = orders.stream().map(SalesOrder::getId).collect(Collectors.toList());
-            List<SalesOrderItem> items = salesOrderItemRepository.findByOrderIdIn(orderIds);
-
-            Map<String, DailyProductStatDTO> map = new LinkedHashMap<>();
-            Map<String, Set<Long>> orderSets = new HashMap<>();
-            for (SalesOrderItem item : items) {
-                String key = item.getProductId() + "|" + item.getProductName() + "|" + item.getUnitPrice();
-                DailyProductStatDTO stat = map.computeIfAbsent(key, k -> DailyProductStatDTO.builder()
-                        .productId(item.getProductId())
-                        .productName(item.getProductName())
-                        .unit(item.getUnit())
-                        .unitPrice(item.getUnitPrice())
-                        .totalQty(0)
-                        .totalAmount(BigDecimal.ZERO)
-                        .orderCount(0)
-                        .build());
-                stat.setTotalQty(stat.getTotalQty() + item.getQuantity());
-                stat.setTotalAmount(stat.getTotalAmount().add(item.getSubtotal()));
-                orderSets.computeIfAbsent(key, k -> new HashSet<>()).add(item.getOrderId());
-            }
-            for (Map.Entry<String, DailyProductStatDTO> entry : map.entrySet()) {
-                entry.getValue().setOrderCount(orderSets.get(entry.getKey()).size());
-                entry.getValue().setTotalAmount(entry.getValue().getTotalAmount().setScale(2, RoundingMode.HALF_UP));
-            }
-
-            List<DailyProductStatDTO> stats = new ArrayList<>(map.values());
+            List<DailyProductStatDTO> stats = salesDailyRollup.products(merchantId, venueId, operatorFilter, day);
+            stats.forEach(stat -> stat.setTotalAmount(stat.getTotalAmount().setScale(2, RoundingMode.HALF_UP)));
             BigDecimal totalAmount = stats.stream().map(DailyProductStatDTO::getTotalAmount)
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
             int totalQty = stats.stream().mapToInt(DailyProductStatDTO::getTotalQty).sum();
@@ -369,8 +348,7 @@ public class SalesServiceImpl implements SalesService {
         if (request.getVenueId() == null || request.getItems() == null || request.getItems().isEmpty()) {
             throw new BusinessException("请选择场馆和商品");
         }
-        Venue venue = venueRepository.findById(request.getVenueId())
-                .orElseThrow(() -> new BusinessException("场馆不存在"));
+        Venue venue = venueCache.require(request.getVenueId());
         if (!merchantId.equals(venue.getMerchantId())) {
             throw new BusinessException(403, "无权操作该场馆");
         }
@@ -386,25 +364,32 @@ public class SalesServiceImpl implements SalesService {
             qtyMap.merge(item.getProductId(), item.getQuantity(), Integer::sum);
         }
 
+        CashierCatalog.Snapshot catalog = cashierCatalog.get(merchantId);
         List<SalesItemDTO> lines = new ArrayList<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
         int totalQty = 0;
         for (Map.Entry<Long, Integer> entry : qtyMap.entrySet()) {
-            Product product = productRepository.findByIdAndMerchantIdAndDeletedFalse(entry.getKey(), merchantId)
-                    .orElseThrow(() -> new BusinessException("商品不存在或已删除"));
-            if (product.getStatus() != Product.ProductStatus.ON_SALE) {
-                throw new BusinessException("商品已下架：" + product.getName());
+            CashierCatalog.Item product = catalog.product(entry.getKey());
+            if (product == null) {
+                catalog = cashierCatalog.refresh(merchantId);
+                product = catalog.product(entry.getKey());
             }
-            if (product.getVenueId() != null && !product.getVenueId().equals(venue.getId())) {
-                throw new BusinessException("商品不属于当前场馆：" + product.getName());
+            if (product == null) {
+                throw new BusinessException("商品不存在或已删除");
             }
-            BigDecimal subtotal = product.getPrice().multiply(BigDecimal.valueOf(entry.getValue()))
+            if (product.status() != Product.ProductStatus.ON_SALE) {
+                throw new BusinessException("商品已下架：" + product.name());
+            }
+            if (product.venueId() != null && !product.venueId().equals(venue.getId())) {
+                throw new BusinessException("商品不属于当前场馆：" + product.name());
+            }
+            BigDecimal subtotal = product.price().multiply(BigDecimal.valueOf(entry.getValue()))
                     .setScale(2, RoundingMode.HALF_UP);
             lines.add(SalesItemDTO.builder()
-                    .productId(product.getId())
-                    .productName(product.getName())
-                    .unit(product.getUnit())
-                    .unitPrice(product.getPrice())
+                    .productId(product.id())
+                    .productName(product.name())
+                    .unit(product.unit())
+                    .unitPrice(product.price())
                     .quantity(entry.getValue())
                     .subtotal(subtotal)
                     .build());
@@ -414,18 +399,14 @@ public class SalesServiceImpl implements SalesService {
         return new BuiltCart(venue, lines, totalAmount.setScale(2, RoundingMode.HALF_UP), totalQty);
     }
 
-    private synchronized String nextOrderNo() {
-        String prefix = "SO" + LocalDate.now().format(DAY);
-        Long max = salesOrderRepository.findMaxSeqByPrefix(prefix);
-        long next = (max == null ? 0 : max) + 1;
-        return prefix + String.format("%06d", next);
-    }
-
-    private synchronized String nextPaymentNo() {
-        String prefix = "SP" + LocalDate.now().format(DAY);
-        Long max = salesPaymentRepository.findMaxSeqByPrefix(prefix);
-        long next = (max == null ? 0 : max) + 1;
-        return prefix + String.format("%06d", next);
+    /** 计价指纹：商品、单价、数量任一变化都会改变，用于确认下单时的价格与预览一致 */
+    private static String cartToken(List<SalesItemDTO> lines) {
+        StringBuilder sb = new StringBuilder();
+        for (SalesItemDTO line : lines) {
+            sb.append(line.getProductId()).append(':').append(line.getUnitPrice().toPlainString())
+                    .append('x').append(line.getQuantity()).append(';');
+        }
+        return DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8));
     }
 
     private PaymentInfoDTO placeholderPayment() {
@@ -439,17 +420,32 @@ public class SalesServiceImpl implements SalesService {
 
     private List<SalesItemDTO> loadItemDtos(Long orderId) {
         return salesOrderItemRepository.findByOrderId(orderId).stream()
-                .map(i -> SalesItemDTO.builder()
-                        .productId(i.getProductId())
-                        .productName(i.getProductName())
-                        .unit(i.getUnit())
-                        .unitPrice(i.getUnitPrice())
-                        .quantity(i.getQuantity())
-                        .subtotal(i.getSubtotal())
-                        .build())
+                .map(this::toItemDto)
                 .collect(Collectors.toList());
     }
 
+    /** 一次查询加载一页订单的明细，按订单分组 */
+    private Map<Long, List<SalesItemDTO>> loadItemDtos(List<SalesOrder> orders) {
+        if (orders.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> orderIds = orders.stream().map(SalesOrder::getId).collect(Collectors.toList());
+        return salesOrderItemRepository.findByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(SalesOrderItem::getOrderId,
+                        Collectors.mapping(this::toItemDto, Collectors.toList())));
+    }
+
+    private SalesItemDTO toItemDto(SalesOrderItem i) {
+        return SalesItemDTO.builder()
+                .productId(i.getProductId())
+                .productName(i.getProductName())
+                .unit(i.getUnit())
+                .unitPrice(i.getUnitPrice())
+                .quantity(i.getQuantity())
+                .subtotal(i.getSubtotal())
+                .build();
+    }
+
     private SalesOrderDTO toOrderDto(SalesOrder order, String venueName, List<SalesItemDTO> items,
                                      PaymentInfoDTO payment, String paymentNo) {
         return SalesOrderDTO.builder()
@@ -473,7 +469,7 @@ public class SalesServiceImpl implements SalesService {
     }
 
     private String venueName(Long venueId) {
-        return venueRepository.findById(venueId).map(Venue::getName).orElse("");
+        return venueCache.name(venueId);
     }
 
     private LocalDate parseDate(String date) {
@@ -504,12 +500,14 @@ public class SalesServiceImpl implements SalesService {
         private final List<SalesItemDTO> items;
         private final BigDecimal totalAmount;
         private final int totalQty;
+        private final String token;
 
         private BuiltCart(Venue venue, List<SalesItemDTO> items, BigDecimal totalAmount, int totalQty) {
             this.venue = venue;
             this.items = items;
             this.totalAmount = totalAmount;
             this.totalQty = totalQty;
+            this.token = cartToken(items);
         }
     }
 
@@ -3,10 +3,23 @@ package com.sportvenue.venue.service.impl;
 import com.sportvenue.common.exception.BusinessException;
 import com.sportvenue.common.model.ApiResponse;
 import com.sportvenue.venue.dto.VenueDTO;
+import com.sportvenue.venue.dto.VenueImportResultDTO;
 import com.sportvenue.venue.dto.VenueQueryDTO;
 import com.sportvenue.venue.entity.Venue;
+import com.sportvenue.venue.entity.VenueRating;
+import com.sportvenue.venue.repository.VenueRatingRepository;
 import com.sportvenue.venue.repository.VenueRepository;
+import com.sportvenue.venue.repository.VenueSpecifications;
+import com.sportvenue.venue.service.MerchantNameCache;
+import com.sportvenue.venue.service.VenueCache;
+import com.sportvenue.venue.service.VenueGeoIndex;
+import com.sportvenue.venue.service.VenueImportService;
+import com.sportvenue.venue.service.VenueOccupancyCounter;
+import com.sportvenue.venue.service.VenueRanking;
+import com.sportvenue.venue.service.VenueSearchIndex;
 import com.sportvenue.venue.service.VenueService;
+import com.sportvenue.venue.service.VenueValidator;
+import com.sportvenue.venue.websocket.OccupancyPublisher;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -14,9 +27,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
@@ -31,14 +48,47 @@ import java.util.stream.Collectors;
 @Transactional
 public class VenueServiceImpl implements VenueService {
     
+    private static final double MAX_NEARBY_RADIUS_METERS = 100_000;
+    private static final int MAX_NEARBY_LIMIT = 100;
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final Set<String> SORTABLE = Set.of(
+            "createTime", "updateTime", "name", "rating", "ratingCount", "capacity", "currentOccupancy");
+    
     @Autowired
     private VenueRepository venueRepository;
     
+    @Autowired
+    private MerchantNameCache nameCache;
+    
+    @Autowired
+    private VenueGeoIndex geoIndex;
+    
+    @Autowired
+    private VenueRanking ranking;
+    
+    @Autowired
+    private VenueSearchIndex searchIndex;
+    
+    @Autowired
+    private VenueCache venueCache;
+    
+    @Autowired
+    private VenueRatingRepository venueRatingRepository;
+    
+    @Autowired
+    private VenueOccupancyCounter occupancyCounter;
+    
+    @Autowired
+    private OccupancyPublisher occupancyPublisher;
+    
+    @Autowired
+    private VenueImportService venueImportService;
+    
     @Override
     public ApiResponse<VenueDTO> createVenue(Venue venue) {
         try {
             // 参数校验
-            validateVenue(venue);
+            VenueValidator.validate(venue);
             
             // 检查场馆名称是否重复
             if (venueRepository.findByNameAndMerchantId(venue.getName(), venue.getMerchantId()).isPresent()) {
@@ -50,10 +100,16 @@ public class VenueServiceImpl implements VenueService {
             venue.setUpdateTime(LocalDateTime.now());
             venue.setCurrentOccupancy(0);
             venue.setRating(BigDecimal.ZERO);
+            venue.setRatingSum(BigDecimal.ZERO);
             venue.setRatingCount(0);
             
             // 保存场馆
             Venue savedVenue = venueRepository.save(venue);
+            nameCache.evict(savedVenue.getMerchantId());
+            geoIndex.refreshAfterCommit(savedVenue);
+            ranking.refreshAfterCommit(savedVenue);
+            searchIndex.refreshAfterCommit(savedVenue);
+            venueCache.evictAfterCommit(savedVenue.getId(), savedVenue.getMerchantId());
             
             log.info("创建场馆成功，场馆ID：{}，场馆名称：{}", savedVenue.getId(), savedVenue.getName());
             
@@ -75,7 +131,7 @@ public class VenueServiceImpl implements VenueService {
                     .orElseThrow(() -> new BusinessException("场馆不存在"));
             
             // 参数校验
-            validateVenue(venue);
+            VenueValidator.validate(venue);
             
             // 改名时检查重名（同名不改则跳过，兼容历史脏数据）
             if (!existingVenue.getName().equals(venue.getName())) {
@@ -107,6 +163,11 @@ public class VenueServiceImpl implements VenueService {
             existingVenue.setUpdateTime(LocalDateTime.now());
             
             Venue updatedVenue = venueRepository.save(existingVenue);
+            nameCache.evict(updatedVenue.getMerchantId());
+            geoIndex.refreshAfterCommit(updatedVenue);
+            ranking.refreshAfterCommit(updatedVenue);
+            searchIndex.refreshAfterCommit(updatedVenue);
+            venueCache.evictAfterCommit(id, updatedVenue.getMerchantId());
             
             log.info("更新场馆成功，场馆ID：{}，场馆名称：{}", updatedVenue.getId(), updatedVenue.getName());
             
@@ -131,6 +192,11 @@ public class VenueServiceImpl implements VenueService {
             // TODO: 添加业务逻辑检查
             
             venueRepository.deleteById(id);
+            nameCache.evict(venue.getMerchantId());
+            geoIndex.removeAfterCommit(id);
+            ranking.removeAfterCommit(id);
+            searchIndex.removeAfterCommit(id);
+            venueCache.evictAfterCommit(id, venue.getMerchantId());
             
             log.info("删除场馆成功，场馆ID：{}，场馆名称：{}", id, venue.getName());
             
@@ -147,10 +213,11 @@ public class VenueServiceImpl implements VenueService {
     @Override
     public ApiResponse<VenueDTO> getVenueById(Long id) {
         try {
-            Venue venue = venueRepository.findById(id)
-                    .orElseThrow(() -> new BusinessException("场馆不存在"));
+            Venue venue = venueCache.require(id);
             
-            return ApiResponse.success(VenueDTO.fromEntity(venue));
+            VenueDTO dto = VenueDTO.fromEntity(venue);
+            dto.setCurrentOccupancy(occupancyCounter.current(venue));
+            return ApiResponse.success(dto);
         } catch (BusinessException e) {
             return ApiResponse.error(e.getMessage());
         } catch (Exception e) {
@@ -173,42 +240,27 @@ public class VenueServiceImpl implements VenueService {
     @Override
     public ApiResponse<Page<VenueDTO>> getVenueList(VenueQueryDTO queryDTO) {
         try {
-            // 构建分页和排序
-            String sortBy = queryDTO.getSortBy() != null ? queryDTO.getSortBy() : "createTime";
+            // 构建分页和排序，id 作为次级排序保证翻页稳定
+            // Set.of 的 contains(null) 会抛 NPE，未传排序字段时直接走默认值
+            String sortBy = queryDTO.getSortBy() != null && SORTABLE.contains(queryDTO.getSortBy())
+                    ? queryDTO.getSortBy() : "createTime";
             String sortDirection = queryDTO.getSortDirection() != null ? queryDTO.getSortDirection() : "DESC";
             
-            Sort sort;
+            Sort.Direction direction;
             try {
-                sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
+                direction = Sort.Direction.fromString(sortDirection);
             } catch (IllegalArgumentException e) {
                 log.warn("无效的排序方向：{}，使用默认排序", sortDirection);
-                sort = Sort.by(Sort.Direction.DESC, "createTime");
+                direction = Sort.Direction.DESC;
             }
+            Sort sort = Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
             
-            Pageable pageable = PageRequest.of(queryDTO.getPage(), queryDTO.getSize(), sort);
-            
-            // 根据查询条件获取场馆列表
-            Page<Venue> venuePage;
-            
-            if (queryDTO.getMerchantId() != null) {
-                venuePage = venueRepository.findByMerchantId(queryDTO.getMerchantId(), pageable);
-            } else if (queryDTO.getType() != null) {
-                List<Venue> venues = venueRepository.findByType(queryDTO.getType());
-                venuePage = createPageFromList(venues, pageable);
-            } else if (queryDTO.getSpaceType() != null) {
-                List<Venue> venues = venueRepository.findBySpaceType(queryDTO.getSpaceType());
-                venuePage = createPageFromList(venues, pageable);
-            } else if (queryDTO.getChargeType() != null) {
-                List<Venue> venues = venueRepository.findByChargeType(queryDTO.getChargeType());
-                venuePage = createPageFromList(venues, pageable);
-            } else if (queryDTO.getStatus() != null) {
-                List<Venue> venues = venueRepository.findByStatus(queryDTO.getStatus());
-                venuePage = createPageFromList(venues, pageable);
-            } else {
-                // 默认查询所有活跃场馆
-                List<Venue> venues = venueRepository.findByStatus(Venue.VenueStatus.ACTIVE);
-                venuePage = createPageFromList(venues, pageable);
-            }
+            int page = queryDTO.getPage() == null ? 0 : Math.max(queryDTO.getPage(), 0);
+            int size = queryDTO.getSize() == null ? 10 : Math.min(Math.max(queryDTO.getSize(), 1), 100);
+            Pageable pageable = PageRequest.of(page, size, sort);
+            
+            // 所有筛选条件合并为一条分页查询；末页不足一页时不再发计数查询
+            Page<Venue> venuePage = venueRepository.findAll(VenueSpecifications.of(queryDTO), pageable);
             
             // 转换为DTO
             Page<VenueDTO> dtoPage = venuePage.map(VenueDTO::fromEntity);
@@ -266,20 +318,14 @@ public class VenueServiceImpl implements VenueService {
     }
     
     @Override
-    public ApiResponse<List<VenueDTO>> searchNearbyVenues(BigDecimal longitude, BigDecimal latitude, BigDecimal radius) {
+    public ApiResponse<List<VenueDTO>> searchNearbyVenues(BigDecimal longitude, BigDecimal latitude,
+                                                          BigDecimal radiusMeters, Integer limit) {
         try {
-            // 计算搜索范围
-            BigDecimal minLng = longitude.subtract(radius);
-            BigDecimal maxLng = longitude.add(radius);
-            BigDecimal minLat = latitude.subtract(radius);
-            BigDecimal maxLat = latitude.add(radius);
-            
-            List<Venue> venues = venueRepository.findByLocationRange(minLng, maxLng, minLat, maxLat);
-            List<VenueDTO> dtoList = venues.stream()
-                    .map(VenueDTO::fromEntity)
-                    .collect(Collectors.toList());
-            
-            return ApiResponse.success(dtoList);
+            double radius = Math.min(radiusMeters.doubleValue(), MAX_NEARBY_RADIUS_METERS);
+            int max = limit != null && limit > 0 ? Math.min(limit, MAX_NEARBY_LIMIT) : MAX_NEARBY_LIMIT;
+            List<VenueGeoIndex.Hit> hits = geoIndex.withinRadius(
+                    latitude.doubleValue(), longitude.doubleValue(), radius, max);
+            return ApiResponse.success(withDistance(hits));
         } catch (Exception e) {
             log.error("搜索附近场馆异常：", e);
             return ApiResponse.error("搜索附近场馆失败");
@@ -287,21 +333,12 @@ public class VenueServiceImpl implements VenueService {
     }
     
     @Override
-    public ApiResponse<List<VenueDTO>> getPopularVenues(Integer limit) {
+    public ApiResponse<List<VenueDTO>> getPopularVenues(Integer limit, String rankBy) {
         try {
-            // 根据评分和预约次数排序，获取热门场馆
-            List<Venue> venues = venueRepository.findByStatusOrderByRatingDescRatingCountDesc(Venue.VenueStatus.ACTIVE);
-            
-            // 限制返回数量
-            if (limit != null && limit > 0) {
-                venues = venues.stream().limit(limit).collect(Collectors.toList());
-            }
-            
-            List<VenueDTO> venueDTOs = venues.stream()
-                    .map(VenueDTO::fromEntity)
-                    .collect(Collectors.toList());
-            
-            return ApiResponse.success(venueDTOs);
+            // 从维护好的排行中取前 K 名，默认按评分、评分人数排序
+            VenueRanking.RankBy by = "blended".equalsIgnoreCase(rankBy)
+                    ? VenueRanking.RankBy.BLENDED : VenueRanking.RankBy.RATING;
+            return ApiResponse.success(ranked(by, limit));
         } catch (Exception e) {
             log.error("获取热门场馆异常：", e);
             return ApiResponse.error("获取热门场馆失败");
@@ -315,13 +352,8 @@ public class VenueServiceImpl implements VenueService {
                 return ApiResponse.error("搜索关键词不能为空");
             }
             
-            List<Venue> venues = venueRepository.findByNameContainingAndStatus(name, Venue.VenueStatus.ACTIVE);
-            
-            List<VenueDTO> venueDTOs = venues.stream()
-                    .map(VenueDTO::fromEntity)
-                    .collect(Collectors.toList());
-            
-            return ApiResponse.success(venueDTOs);
+            // 倒排索引按名称、地址、设施及名称拼音匹配，结果按相关度排序
+            return ApiResponse.success(inOrder(searchIndex.search(name, MAX_SEARCH_RESULTS)));
         } catch (Exception e) {
             log.error("搜索场馆异常：", e);
             return ApiResponse.error("搜索场馆失败");
@@ -331,26 +363,15 @@ public class VenueServiceImpl implements VenueService {
     @Override
     public ApiResponse<List<VenueDTO>> getRecommendedVenues(BigDecimal longitude, BigDecimal latitude, Integer limit) {
         try {
-            List<Venue> venues = new ArrayList<>();
-            
             if (longitude != null && latitude != null) {
                 // 基于位置推荐：优先推荐附近的场馆
-                venues = venueRepository.findByStatusOrderByDistanceAsc(Venue.VenueStatus.ACTIVE, longitude, latitude);
-            } else {
-                // 基于热度推荐：推荐评分高的场馆
-                venues = venueRepository.findByStatusOrderByRatingDesc(Venue.VenueStatus.ACTIVE);
-            }
-            
-            // 限制返回数量
-            if (limit != null && limit > 0) {
-                venues = venues.stream().limit(limit).collect(Collectors.toList());
+                int k = limit != null && limit > 0 ? Math.min(limit, MAX_NEARBY_LIMIT) : 10;
+                return ApiResponse.success(withDistance(
+                        geoIndex.nearest(latitude.doubleValue(), longitude.doubleValue(), k)));
             }
             
-            List<VenueDTO> venueDTOs = venues.stream()
-                    .map(VenueDTO::fromEntity)
-                    .collect(Collectors.toList());
-            
-            return ApiResponse.success(venueDTOs);
+            // 基于热度推荐：按评分、评分人数与近期订场量的综合分
+            return ApiResponse.success(ranked(VenueRanking.RankBy.BLENDED, limit));
         } catch (Exception e) {
             log.error("获取推荐场馆异常：", e);
             return ApiResponse.error("获取推荐场馆失败");
@@ -360,18 +381,18 @@ public class VenueServiceImpl implements VenueService {
     @Override
     public ApiResponse<Map<String, Object>> getVenueRealtimeInfo(Long id) {
         try {
-            Venue venue = venueRepository.findById(id)
-                    .orElseThrow(() -> new BusinessException("场馆不存在"));
+            Venue venue = venueCache.require(id);
+            int current = occupancyCounter.current(venue);
             
             Map<String, Object> realtimeInfo = new HashMap<>();
             realtimeInfo.put("venueId", venue.getId());
             realtimeInfo.put("venueName", venue.getName());
-            realtimeInfo.put("currentOccupancy", venue.getCurrentOccupancy());
+            realtimeInfo.put("currentOccupancy", current);
             realtimeInfo.put("capacity", venue.getCapacity());
             realtimeInfo.put("occupancyRate", venue.getCapacity() > 0 ? 
-                (double) venue.getCurrentOccupancy() / venue.getCapacity() : 0.0);
+                (double) current / venue.getCapacity() : 0.0);
             realtimeInfo.put("isOpen", isVenueOpen(venue));
-            realtimeInfo.put("availableSlots", venue.getCapacity() - venue.getCurrentOccupancy());
+            realtimeInfo.put("availableSlots", venue.getCapacity() - current);
             realtimeInfo.put("lastUpdateTime", venue.getUpdateTime());
             
             return ApiResponse.success(realtimeInfo);
@@ -384,18 +405,18 @@ public class VenueServiceImpl implements VenueService {
     @Override
     public ApiResponse<Map<String, Object>> getVenueRealtimeData(Long id) {
         try {
-            Venue venue = venueRepository.findById(id)
-                    .orElseThrow(() -> new BusinessException("场馆不存在"));
+            Venue venue = venueCache.require(id);
+            int current = occupancyCounter.current(venue);
             
             Map<String, Object> realtimeData = new HashMap<>();
             realtimeData.put("venueId", venue.getId());
             realtimeData.put("venueName", venue.getName());
-            realtimeData.put("currentOccupancy", venue.getCurrentOccupancy());
+            realtimeData.put("currentOccupancy", current);
             realtimeData.put("capacity", venue.getCapacity());
             realtimeData.put("occupancyRate", venue.getCapacity() > 0 ? 
-                (double) venue.getCurrentOccupancy() / venue.getCapacity() : 0.0);
+                (double) current / venue.getCapacity() : 0.0);
             realtimeData.put("isOpen", isVenueOpen(venue));
-            realtimeData.put("availableSlots", venue.getCapacity() - venue.getCurrentOccupancy());
+            realtimeData.put("availableSlots", venue.getCapacity() - current);
             realtimeData.put("rating", venue.getRating());
             realtimeData.put("ratingCount", venue.getRatingCount());
             realtimeData.put("status", venue.getStatus());
@@ -413,8 +434,7 @@ public class VenueServiceImpl implements VenueService {
     @Override
     public ApiResponse<Map<String, Object>> getVenueReservationStats(Long id) {
         try {
-            Venue venue = venueRepository.findById(id)
-                    .orElseThrow(() -> new BusinessException("场馆不存在"));
+            Venue venue = venueCache.require(id);
             
             Map<String, Object> reservationStats = new HashMap<>();
             reservationStats.put("venueId", venue.getId());
@@ -439,8 +459,7 @@ public class VenueServiceImpl implements VenueService {
     @Override
     public ApiResponse<Map<String, Object>> getVenueCheckInStats(Long id) {
         try {
-            Venue venue = venueRepository.findById(id)
-                    .orElseThrow(() -> new BusinessException("场馆不存在"));
+            Venue venue = venueCache.require(id);
             
             Map<String, Object> checkInStats = new HashMap<>();
             checkInStats.put("venueId", venue.getId());
@@ -451,7 +470,7 @@ public class VenueServiceImpl implements VenueService {
             checkInStats.put("weekCheckIns", 0);
             checkInStats.put("monthCheckIns", 0);
             checkInStats.put("totalCheckIns", 0);
-            checkInStats.put("currentCheckIns", venue.getCurrentOccupancy());
+            checkInStats.put("currentCheckIns", occupancyCounter.current(venue));
             checkInStats.put("peakCheckIns", 0);
             checkInStats.put("averageCheckIns", 0.0);
             
@@ -465,8 +484,7 @@ public class VenueServiceImpl implements VenueService {
     @Override
     public ApiResponse<Map<String, Object>> getVenueRevenueStats(Long id) {
         try {
-            Venue venue = venueRepository.findById(id)
-                    .orElseThrow(() -> new BusinessException("场馆不存在"));
+            Venue venue = venueCache.require(id);
             
             Map<String, Object> revenueStats = new HashMap<>();
             revenueStats.put("venueId", venue.getId());
@@ -496,6 +514,10 @@ public class VenueServiceImpl implements VenueService {
             venue.setStatus(status);
             venue.setUpdateTime(LocalDateTime.now());
             venueRepository.save(venue);
+            geoIndex.refreshAfterCommit(venue);
+            ranking.refreshAfterCommit(venue);
+            searchIndex.refreshAfterCommit(venue);
+            venueCache.evictAfterCommit(id, venue.getMerchantId());
             
             log.info("更新场馆状态成功，场馆ID：{}，状态：{}", id, status);
             
@@ -511,12 +533,14 @@ public class VenueServiceImpl implements VenueService {
     @Override
     public ApiResponse<Void> updateVenueOccupancy(Long id, Integer occupancy) {
         try {
-            Venue venue = venueRepository.findById(id)
-                    .orElseThrow(() -> new BusinessException("场馆不存在"));
+            Venue venue = venueCache.require(id);
+            if (occupancy == null) {
+                throw new BusinessException("请填写使用人数");
+            }
             
-            venue.setCurrentOccupancy(occupancy);
-            venue.setUpdateTime(LocalDateTime.now());
-            venueRepository.save(venue);
+            // 只改 Redis 计数，由 VenueOccupancyCounter 定时回写数据库
+            occupancyCounter.set(venue, occupancy);
+            occupancyPublisher.markChanged(id);
             
             log.info("更新场馆使用人数成功，场馆ID：{}，人数：{}", id, occupancy);
             
@@ -529,24 +553,43 @@ public class VenueServiceImpl implements VenueService {
         }
     }
     
+    @Override
+    public ApiResponse<Integer> adjustVenueOccupancy(Long id, int delta) {
+        try {
+            Venue venue = venueCache.require(id);
+            int current = occupancyCounter.adjust(venue, delta);
+            occupancyPublisher.markChanged(id);
+            log.debug("场馆人数变动，场馆ID：{}，变动：{}，当前：{}", id, delta, current);
+            return ApiResponse.success(current);
+        } catch (BusinessException e) {
+            return ApiResponse.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("场馆人数变动异常：", e);
+            return ApiResponse.error("更新场馆使用人数失败");
+        }
+    }
+    
     @Override
     public ApiResponse<Void> updateVenueRating(Long id, BigDecimal rating) {
         try {
-            Venue venue = venueRepository.findById(id)
-                    .orElseThrow(() -> new BusinessException("场馆不存在"));
-            
-            // 更新评分
-            BigDecimal currentRating = venue.getRating();
-            Integer currentCount = venue.getRatingCount();
-            
-            BigDecimal newRating = currentRating.multiply(BigDecimal.valueOf(currentCount))
-                    .add(rating)
-                    .divide(BigDecimal.valueOf(currentCount + 1), 2, RoundingMode.HALF_UP);
-            
-            venue.setRating(newRating);
-            venue.setRatingCount(currentCount + 1);
-            venue.setUpdateTime(LocalDateTime.now());
-            venueRepository.save(venue);
+            if (rating == null || rating.compareTo(BigDecimal.ONE) < 0 || rating.compareTo(BigDecimal.valueOf(5)) > 0) {
+                throw new BusinessException("评分须在1-5分之间");
+            }
+            Venue cached = venueCache.require(id);
+            
+            // 追加评分明细，总和与人数由单条 UPDATE 原子累加，不再读改写实体
+            BigDecimal score = rating.setScale(2, RoundingMode.HALF_UP);
+            VenueRating record = new VenueRating();
+            record.setVenueId(id);
+            record.setScore(score);
+            record.setCreateTime(LocalDateTime.now());
+            venueRatingRepository.save(record);
+            venueRepository.addRating(id, score);
+            
+            Venue venue = venueRepository.findById(id).orElse(cached);
+            BigDecimal newRating = venue.getRating();
+            ranking.refreshAfterCommit(venue);
+            venueCache.evictAfterCommit(id, venue.getMerchantId());
             
             log.info("更新场馆评分成功，场馆ID：{}，新评分：{}", id, newRating);
             
@@ -703,11 +746,17 @@ public class VenueServiceImpl implements VenueService {
         }
     }
     
+    /** 导入按批各自提交，不在外层事务中执行 */
     @Override
-    public ApiResponse<Void> importVenues(List<Venue> venues) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ApiResponse<VenueImportResultDTO> importVenues(List<Venue> venues) {
         try {
-            // TODO: 实现场馆数据导入
-            return ApiResponse.error("功能未实现");
+            if (venues == null || venues.isEmpty()) {
+                throw new BusinessException("导入数据不能为空");
+            }
+            return ApiResponse.success(venueImportService.importList(venues, null, null));
+        } catch (BusinessException e) {
+            return ApiResponse.error(e.getMessage());
         } catch (Exception e) {
             log.error("导入场馆数据异常：", e);
             return ApiResponse.error("导入场馆数据失败");
@@ -715,16 +764,24 @@ public class VenueServiceImpl implements VenueService {
     }
     
     @Override
-    public ApiResponse<List<Venue>> exportVenues(VenueQueryDTO queryDTO) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ApiResponse<VenueImportResultDTO> importVenues(InputStream in, String format, Long merchantId, String merchantName) {
         try {
-            // TODO: 实现场馆数据导出
-            return ApiResponse.error("功能未实现");
+            return ApiResponse.success(venueImportService.importStream(in, format, merchantId, merchantName));
+        } catch (BusinessException e) {
+            return ApiResponse.error(e.getMessage());
         } catch (Exception e) {
-            log.error("导出场馆数据异常：", e);
-            return ApiResponse.error("导出场馆数据失败");
+            log.error("导入场馆文件异常：", e);
+            return ApiResponse.error("导入场馆数据失败");
         }
     }
     
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportVenues(VenueQueryDTO queryDTO, String format, OutputStream out) throws IOException {
+        venueImportService.export(queryDTO, format, out);
+    }
+    
     @Override
     public ApiResponse<Void> syncVenueData(Long venueId) {
         try {
@@ -759,44 +816,55 @@ public class VenueServiceImpl implements VenueService {
     }
     
     /**
-     * 验证场馆信息
+     * 按排行顺序组装前 limit 个场馆
      */
-    private void validateVenue(Venue venue) {
-        if (!StringUtils.hasText(venue.getName())) {
-            throw new BusinessException("场馆名称不能为空");
-        }
-        if (venue.getType() == null) {
-            throw new BusinessException("场馆类型不能为空");
-        }
-        if (venue.getSpaceType() == null) {
-            throw new BusinessException("场馆空间类型不能为空");
-        }
-        if (venue.getChargeType() == null) {
-            throw new BusinessException("场馆收费类型不能为空");
-        }
-        if (venue.getMerchantId() == null) {
-            throw new BusinessException("商户ID不能为空");
-        }
-        if (!StringUtils.hasText(venue.getAddress())) {
-            throw new BusinessException("场馆地址不能为空");
+    private List<VenueDTO> ranked(VenueRanking.RankBy by, Integer limit) {
+        int k = limit != null && limit > 0 ? Math.min(limit, MAX_NEARBY_LIMIT) : 10;
+        return inOrder(ranking.top(by, k));
+    }
+    
+    /**
+     * 按给定 ID 顺序批量加载营业中的场馆
+     */
+    private List<VenueDTO> inOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Venue> venues = venueRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Venue::getId, v -> v));
+        List<VenueDTO> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Venue venue = venues.get(id);
+            if (venue != null && venue.getStatus() == Venue.VenueStatus.ACTIVE) {
+                result.add(VenueDTO.fromEntity(venue));
+            }
         }
+        return result;
     }
     
     /**
-     * 从List创建Page对象
+     * 按空间索引命中顺序组装DTO并带上距离（米），场馆数据一次批量加载
      */
-    private Page<Venue> createPageFromList(List<Venue> venues, Pageable pageable) {
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), venues.size());
-        
-        if (start > venues.size()) {
-            return Page.empty(pageable);
+    private List<VenueDTO> withDistance(List<VenueGeoIndex.Hit> hits) {
+        if (hits.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Venue> venues = venueRepository.findAllById(
+                hits.stream().map(VenueGeoIndex.Hit::venueId).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Venue::getId, v -> v));
+        List<VenueDTO> result = new ArrayList<>(hits.size());
+        for (VenueGeoIndex.Hit hit : hits) {
+            Venue venue = venues.get(hit.venueId());
+            if (venue == null || venue.getStatus() != Venue.VenueStatus.ACTIVE) {
+                continue;
+            }
+            VenueDTO dto = VenueDTO.fromEntity(venue);
+            dto.setDistance(BigDecimal.valueOf(hit.distanceMeters()).setScale(0, RoundingMode.HALF_UP));
+            result.add(dto);
         }
-        
-        return new org.springframework.data.domain.PageImpl<>(
-                venues.subList(start, end), pageable, venues.size());
+        return result;
     }
-
+    
     /**
      * 检查场馆是否营业
      */
@@ -0,0 +1,111 @@
+package com.sportvenue.venue.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 极简 CSV（RFC 4180）读写：支持引号内的逗号、换行和 "" 转义，逐条流式处理，不整体读入内存
+ */
+public final class Csv {
+
+    private Csv() {
+    }
+
+    /** 写出一行，null 写为空字段 */
+    public static void writeRow(Writer out, Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(escape(fields[i]));
+        }
+        out.write("\r\n");
+    }
+
+    public static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String s = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quote ? '"' + s.replace("\"", "\"\"") + '"' : s;
+    }
+
+    /**
+     * 逐条读取记录；首个字段开头的 UTF-8 BOM 会被去掉
+     */
+    public static final class Reader implements Closeable {
+        private final BufferedReader in;
+        private boolean first = true;
+
+        public Reader(java.io.Reader in) {
+            this.in = in instanceof BufferedReader b ? b : new BufferedReader(in);
+        }
+
+        /** 下一条记录，读到末尾返回 null */
+        public List<String> next() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean fieldStart = true;
+            boolean any = false;
+            int c;
+            while ((c = in.read()) != -1) {
+                if (first) {
+                    first = false;
+                    if (c == '\uFEFF') {
+                        continue;
+                    }
+                }
+                any = true;
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    in.mark(1);
+                    int n = in.read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (n != -1) {
+                            in.reset();
+                        }
+                    }
+                } else if (c == '"' && fieldStart) {
+                    quoted = true;
+                    fieldStart = false;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    fieldStart = true;
+                } else if (c == '\n') {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                    fieldStart = false;
+                }
+            }
+            if (!any) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.sportvenue.venue.util;
+
+/**
+ * 内存索引的懒加载标记：首次查询时加载一次，并发的首次查询只触发一次加载；
+ * 定时重建完成后调用 markLoaded，之后不再触发
+ */
+public final class LoadOnce {
+
+    private volatile boolean loaded;
+
+    public void ensure(Runnable loader) {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    loader.run();
+                    loaded = true;
+                }
+            }
+        }
+    }
+
+    public void markLoaded() {
+        loaded = true;
+    }
+}
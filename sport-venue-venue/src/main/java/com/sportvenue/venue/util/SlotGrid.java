@@ -0,0 +1,99 @@
+package com.sportvenue.venue.util;
+
+import com.sportvenue.venue.entity.Booking;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 半小时时段网格：B 端日历、C 端可订时段与占用位图共用的时段换算。
+ * 时段时间串预先生成，渲染时只做日期前缀拼接，不再逐段 format
+ */
+public final class SlotGrid {
+
+    public static final int SLOT_MINUTES = 30;
+    public static final int SLOTS_PER_DAY = 48;
+
+    /** TIMES[i] 为第 i 个时段起点的 HH:mm:ss，TIMES[48] 即次日零点 */
+    private static final String[] TIMES = new String[SLOTS_PER_DAY + 1];
+
+    static {
+        for (int i = 0; i <= SLOTS_PER_DAY; i++) {
+            int minutes = (i * SLOT_MINUTES) % (24 * 60);
+            TIMES[i] = String.format("%02d:%02d:00", minutes / 60, minutes % 60);
+        }
+    }
+
+    private SlotGrid() {
+    }
+
+    /** 第 i 个时段的开始时间串，date 为 yyyy-MM-dd */
+    public static String startTime(String date, int i) {
+        return date + " " + TIMES[i];
+    }
+
+    /** 第 i 个时段的结束时间串；最后一段结束于 nextDate 零点 */
+    public static String endTime(String date, String nextDate, int i) {
+        return (i == SLOTS_PER_DAY - 1 ? nextDate : date) + " " + TIMES[i + 1];
+    }
+
+    /** [start, end) 落在 day 内的首个时段（含），不相交时返回 -1 */
+    public static int fromSlot(LocalDate day, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime dayStart = day.atStartOfDay();
+        if (!start.isBefore(dayStart.plusDays(1)) || !end.isAfter(dayStart)) {
+            return -1;
+        }
+        return start.isAfter(dayStart) ? slotFloor(start) : 0;
+    }
+
+    /** [start, end) 落在 day 内的末时段（不含）；结束时间向上取整到半小时 */
+    public static int toSlot(LocalDate day, LocalDateTime end) {
+        LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+        return end.isBefore(dayEnd) ? slotCeil(end) : SLOTS_PER_DAY;
+    }
+
+    /** [start, end) 在 day 内对应的位掩码，bit i 表示第 i 个时段 */
+    public static long mask(LocalDate day, LocalDateTime start, LocalDateTime end) {
+        int from = fromSlot(day, start, end);
+        if (from < 0) {
+            return 0L;
+        }
+        int to = toSlot(day, end);
+        if (to <= from) {
+            return 0L;
+        }
+        return ((1L << (to - from)) - 1) << from;
+    }
+
+    /**
+     * 按开始时间升序的当日订场单一次扫描，得到每个时段的占用单；
+     * 同一时段被多单覆盖时保留最早开始的一单
+     */
+    public static Booking[] owners(LocalDate day, List<Booking> sortedBookings) {
+        Booking[] owners = new Booking[SLOTS_PER_DAY];
+        for (Booking b : sortedBookings) {
+            int from = fromSlot(day, b.getStartTime(), b.getEndTime());
+            if (from < 0) {
+                continue;
+            }
+            int to = toSlot(day, b.getEndTime());
+            for (int i = from; i < to; i++) {
+                if (owners[i] == null) {
+                    owners[i] = b;
+                }
+            }
+        }
+        return owners;
+    }
+
+    private static int slotFloor(LocalDateTime t) {
+        return (t.getHour() * 60 + t.getMinute()) / SLOT_MINUTES;
+    }
+
+    private static int slotCeil(LocalDateTime t) {
+        int minutes = t.getHour() * 60 + t.getMinute();
+        boolean exact = minutes % SLOT_MINUTES == 0 && t.getSecond() == 0 && t.getNano() == 0;
+        return minutes / SLOT_MINUTES + (exact ? 0 : 1);
+    }
+}
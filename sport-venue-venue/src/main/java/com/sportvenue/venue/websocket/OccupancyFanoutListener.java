@@ -0,0 +1,34 @@
+package com.sportvenue.venue.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 订阅 Redis 场馆人数频道，把各实例发布的帧投递到本机的 WebSocket 连接，并记录送达的人数供推送去重
+ */
+@Slf4j
+@Component
+public class OccupancyFanoutListener implements MessageListener {
+
+    @Autowired
+    private OccupancyPublisher occupancyPublisher;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int sep = body.indexOf(':');
+        try {
+            Long venueId = Long.valueOf(body.substring(0, sep));
+            String frame = body.substring(sep + 1);
+            OccupancyWebSocket.deliverLocal(venueId, frame);
+            occupancyPublisher.delivered(venueId, frame);
+        } catch (RuntimeException e) {
+            log.warn("忽略无法解析的场馆人数消息：{}", body);
+        }
+    }
+}
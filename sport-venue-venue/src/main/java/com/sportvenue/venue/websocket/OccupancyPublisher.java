@@ -0,0 +1,70 @@
+package com.sportvenue.venue.websocket;
+
+import com.sportvenue.venue.service.VenueOccupancyCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 场馆人数推送合并器：人数变动只登记场馆 ID，每个 venue.occupancy.update-interval 周期
+ * 批量读取一次实时人数，与最近一次经频道送达的值相同的跳过，变化的场馆各生成一帧，由所有订阅者共享。
+ * 送达值由 OccupancyFanoutListener 记录，包含其他实例发布的帧，因此各实例判断依据一致
+ */
+@Slf4j
+@Component
+public class OccupancyPublisher {
+
+    @Autowired
+    private VenueOccupancyCounter occupancyCounter;
+
+    /** 本周期内有变动的场馆 */
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    /** venueId -> 最近一次经频道送达（任一实例发布）的人数 */
+    private final Map<Long, Integer> lastDelivered = new ConcurrentHashMap<>();
+
+    /** 登记一次人数变动，下个周期统一推送 */
+    public void markChanged(Long venueId) {
+        changed.add(venueId);
+    }
+
+    @Scheduled(fixedDelayString = "${venue.occupancy.update-interval:5000}")
+    public void publish() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<Long> venueIds = new ArrayList<>(changed);
+        changed.removeAll(venueIds);
+        Map<Long, Integer> current;
+        try {
+            current = occupancyCounter.current(venueIds);
+        } catch (RuntimeException e) {
+            changed.addAll(venueIds);
+            log.warn("读取场馆人数失败，推迟推送：{}", e.getMessage());
+            return;
+        }
+        int pushed = 0;
+        for (Map.Entry<Long, Integer> e : current.entrySet()) {
+            if (e.getValue().equals(lastDelivered.get(e.getKey()))) {
+                continue;
+            }
+            OccupancyWebSocket.publish(e.getKey(), OccupancyWebSocket.frame(e.getKey(), e.getValue(), null));
+            pushed++;
+        }
+        log.debug("场馆人数推送：{} 个场馆有变动，推送 {} 帧", venueIds.size(), pushed);
+    }
+
+    /** 频道上收到一帧（含本实例发布的），记录该场馆客户端当前看到的人数 */
+    public void delivered(Long venueId, String frame) {
+        Integer current = OccupancyWebSocket.currentOf(frame);
+        if (current != null) {
+            lastDelivered.put(venueId, current);
+        }
+    }
+}
@@ -2,72 +2,239 @@ package com.sportvenue.venue.websocket;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
 import jakarta.websocket.*;
 import jakarta.websocket.server.PathParam;
 import jakarta.websocket.server.ServerEndpoint;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 实时人数推送WebSocket端点
+ * 按场馆维护订阅者集合，广播只遍历该场馆的订阅者；每个连接一个有界发送队列，
+ * 异步发送、同一时刻只有一帧在途，队列满时丢弃最旧的帧（帧均为全量快照，丢旧不丢新），
+ * 持续积压的慢连接直接断开。跨实例通过 Redis pub/sub 转发，由 OccupancyFanoutListener 投递到本机连接
  */
 @Slf4j
 @Component
 @ServerEndpoint("/ws/occupancy/{venueId}")
 public class OccupancyWebSocket {
 
-    private static RedisTemplate<String, Integer> redisTemplate;
-    private static final ConcurrentHashMap<String, Session> SESSIONS = new ConcurrentHashMap<>();
+    public static final String CHANNEL = "venue:occupancy";
+
+    private static StringRedisTemplate redisTemplate;
+    private static volatile int queueLimit = 16;
+    private static volatile int slowClientDrops = 1000;
+
+    /** venueId -> 订阅者 */
+    private static final Map<Long, Set<Subscriber>> VENUES = new ConcurrentHashMap<>();
+    /** sessionId -> 订阅者 */
+    private static final Map<String, Subscriber> SESSIONS = new ConcurrentHashMap<>();
 
     @Autowired
-    @Qualifier("integerRedisTemplate")
-    public void setRedisTemplate(RedisTemplate<String, Integer> redisTemplate) {
+    public void setRedisTemplate(StringRedisTemplate redisTemplate) {
         OccupancyWebSocket.redisTemplate = redisTemplate;
     }
 
+    @Autowired
+    public void setLimits(@Value("${venue.websocket.send-queue-limit:16}") int queueLimit,
+                          @Value("${venue.websocket.slow-client-drops:1000}") int slowClientDrops) {
+        OccupancyWebSocket.queueLimit = Math.max(queueLimit, 1);
+        OccupancyWebSocket.slowClientDrops = Math.max(slowClientDrops, queueLimit);
+    }
+
     @OnOpen
     public void onOpen(Session session, @PathParam("venueId") Long venueId) {
-        String sessionId = venueId + "_" + session.getId();
-        SESSIONS.put(sessionId, session);
-        log.info("WebSocket连接建立: venueId={}, sessionId={}", venueId, session.getId());
+        Subscriber subscriber = new Subscriber(session, venueId);
+        SESSIONS.put(session.getId(), subscriber);
+        VENUES.compute(venueId, (k, set) -> {
+            Set<Subscriber> subscribers = set == null ? ConcurrentHashMap.newKeySet() : set;
+            subscribers.add(subscriber);
+            return subscribers;
+        });
+        log.debug("WebSocket连接建立: venueId={}, sessionId={}", venueId, session.getId());
     }
 
     @OnMessage
     public void onMessage(String message, Session session) {
-        log.info("收到WebSocket消息: {}", message);
+        log.debug("收到WebSocket消息: {}", message);
         // 处理客户端消息
     }
 
     @OnClose
     public void onClose(Session session) {
-        SESSIONS.entrySet().removeIf(entry -> entry.getValue().equals(session));
-        log.info("WebSocket连接关闭: sessionId={}", session.getId());
+        unsubscribe(session);
+        log.debug("WebSocket连接关闭: sessionId={}", session.getId());
     }
 
     @OnError
     public void onError(Session session, Throwable error) {
-        log.error("WebSocket错误: sessionId={}", session.getId(), error);
-        SESSIONS.entrySet().removeIf(entry -> entry.getValue().equals(session));
+        log.warn("WebSocket错误: sessionId={}，{}", session.getId(), error.getMessage());
+        unsubscribe(session);
     }
 
     /**
-     * 广播人数更新
+     * 广播人数更新：经 Redis 发布到所有实例，Redis 不可用时只投递本机连接
      */
     public static void broadcastOccupancy(Long venueId, int current, int predicted) {
-        String msg = String.format("{\"venueId\":%d,\"current\":%d,\"predicted\":%d,\"timestamp\":%d}",
-                venueId, current, predicted, System.currentTimeMillis());
-        
-        SESSIONS.entrySet().stream()
-                .filter(entry -> entry.getKey().startsWith(venueId + "_"))
-                .forEach(entry -> {
-                    try {
-                        entry.getValue().getBasicRemote().sendText(msg);
-                    } catch (Exception e) {
-                        log.error("发送WebSocket消息失败", e);
+        publish(venueId, frame(venueId, current, predicted));
+    }
+
+    /** 人数帧，predicted 为空时省略该字段 */
+    public static String frame(Long venueId, int current, Integer predicted) {
+        StringBuilder sb = new StringBuilder(80)
+                .append("{\"venueId\":").append(venueId)
+                .append(",\"current\":").append(current);
+        if (predicted != null) {
+            sb.append(",\"predicted\":").append(predicted);
+        }
+        return sb.append(",\"timestamp\":").append(System.currentTimeMillis()).append('}').toString();
+    }
+
+    /** 从 frame 生成的帧中取出 current，无法解析时返回 null */
+    public static Integer currentOf(String frame) {
+        int start = frame.indexOf("\"current\":");
+        if (start < 0) {
+            return null;
+        }
+        start += 10;
+        int end = start;
+        while (end < frame.length() && (Character.isDigit(frame.charAt(end)) || frame.charAt(end) == '-')) {
+            end++;
+        }
+        try {
+            return Integer.valueOf(frame.substring(start, end));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** 发布已序列化好的帧，消息体为 venueId:frame */
+    public static void publish(Long venueId, String frame) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, venueId + ":" + frame);
+        } catch (RuntimeException e) {
+            log.warn("发布场馆人数消息失败，仅推送本机连接：{}", e.getMessage());
+            deliverLocal(venueId, frame);
+        }
+    }
+
+    /** 把一帧投递给本机订阅该场馆的连接，只入队不阻塞 */
+    public static void deliverLocal(Long venueId, String frame) {
+        Set<Subscriber> subscribers = VENUES.get(venueId);
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber s : subscribers) {
+            s.offer(frame);
+        }
+    }
+
+    /** 本机订阅了该场馆的连接数 */
+    public static int subscriberCount(Long venueId) {
+        Set<Subscriber> subscribers = VENUES.get(venueId);
+        return subscribers == null ? 0 : subscribers.size();
+    }
+
+    private static void unsubscribe(Session session) {
+        Subscriber subscriber = SESSIONS.remove(session.getId());
+        if (subscriber == null) {
+            return;
+        }
+        VENUES.computeIfPresent(subscriber.venueId, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static final class Subscriber {
+        private final Session session;
+        private final Long venueId;
+        private final ArrayDeque<String> queue = new ArrayDeque<>();
+        private boolean sending;
+        /** 已判定为慢连接、等待关闭，不再入队 */
+        private boolean closing;
+        /** 自上次发送成功以来丢弃的帧数 */
+        private int dropped;
+
+        private Subscriber(Session session, Long venueId) {
+            this.session = session;
+            this.venueId = venueId;
+        }
+
+        private void offer(String frame) {
+            boolean slow = false;
+            synchronized (this) {
+                if (!session.isOpen() || closing) {
+                    return;
+                }
+                if (queue.size() >= queueLimit) {
+                    queue.pollFirst();
+                    if (++dropped >= slowClientDrops) {
+                        closing = true;
+                        queue.clear();
+                        slow = true;
+                    }
+                }
+                if (!slow) {
+                    queue.addLast(frame);
+                    if (sending) {
+                        return;
+                    }
+                    sending = true;
+                }
+            }
+            if (slow) {
+                closeSlow();
+            } else {
+                sendNext();
+            }
+        }
+
+        private void sendNext() {
+            String frame;
+            synchronized (this) {
+                frame = queue.pollFirst();
+                if (frame == null) {
+                    sending = false;
+                    return;
+                }
+            }
+            try {
+                session.getAsyncRemote().sendText(frame, result -> {
+                    if (result.isOK()) {
+                        synchronized (this) {
+                            dropped = 0;
+                        }
+                        sendNext();
+                    } else {
+                        log.debug("WebSocket发送失败: sessionId={}", session.getId());
+                        unsubscribe(session);
                     }
                 });
+            } catch (RuntimeException e) {
+                log.debug("WebSocket发送失败: sessionId={}，{}", session.getId(), e.getMessage());
+                unsubscribe(session);
+            }
+        }
+
+        /** 在锁外调用；session.close 可能阻塞，放到虚拟线程执行，不占用 Redis 监听线程 */
+        private void closeSlow() {
+            unsubscribe(session);
+            Thread.ofVirtual().name("ws-slow-close").start(() -> {
+                try {
+                    session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "consumer too slow"));
+                } catch (IOException e) {
+                    log.debug("关闭慢连接失败: sessionId={}", session.getId());
+                }
+            });
+            log.warn("WebSocket连接积压过多已断开: venueId={}, sessionId={}", venueId, session.getId());
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,5 @@
+-- 场馆列表分页：默认按状态过滤、创建时间倒序，商户视图按商户过滤，排序直接走索引
+USE sport_venue;
+
+ALTER TABLE venues ADD INDEX idx_status_create (status, create_time, id);
+ALTER TABLE venues ADD INDEX idx_merchant_create (merchant_id, create_time, id);
@@ -0,0 +1,31 @@
+-- 场馆评分：逐条记录评分，venues 上维护 rating_sum / rating_count 并由单条 UPDATE 原子累加。
+-- 列和表也可能已由 JPA ddl-auto 建好（rating_sum 为空表示尚未回填），各步均可重复执行；
+-- 服务启动时 VenueRatingRecomputeJob.backfillLegacyRatings 会做同样的回填
+USE sport_venue;
+
+SET @has_rating_sum = (SELECT COUNT(*) FROM information_schema.COLUMNS
+                       WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'venues' AND COLUMN_NAME = 'rating_sum');
+SET @ddl = IF(@has_rating_sum = 0,
+              'ALTER TABLE venues ADD COLUMN rating_sum DECIMAL(14, 2) NULL COMMENT ''评分总和'' AFTER rating',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+CREATE TABLE IF NOT EXISTS venue_ratings (
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    venue_id    BIGINT        NOT NULL,
+    score       DECIMAL(3, 2) NOT NULL               COMMENT '评分 1-5',
+    weight      INT           NOT NULL DEFAULT 1     COMMENT '票数，存量汇总行为原评分人数',
+    create_time DATETIME      DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_vr_venue (venue_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='场馆评分明细';
+
+-- 存量评分只有均值和人数，按一行加权汇总记入明细，便于之后整体重算
+INSERT INTO venue_ratings (venue_id, score, weight)
+SELECT v.id, v.rating, v.rating_count FROM venues v
+WHERE v.rating_sum IS NULL AND v.rating_count > 0 AND v.rating IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM venue_ratings r WHERE r.venue_id = v.id);
+
+UPDATE venues SET rating_count = IFNULL(rating_count, 0), rating_sum = IFNULL(rating, 0) * IFNULL(rating_count, 0)
+WHERE rating_sum IS NULL;
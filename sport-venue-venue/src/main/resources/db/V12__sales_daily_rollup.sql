@@ -0,0 +1,24 @@
+-- 销售日汇总回填：表结构由实体 SalesDailyRollupRow / SalesDailyProductRollupRow 经 JPA ddl-auto 创建，
+-- 须在服务启动建表后执行。按订单明细重算每个汇总键并覆盖写入，可重复执行
+USE sport_venue;
+
+INSERT INTO sales_daily_rollup (merchant_id, sale_date, venue_id, operator_id, pay_method, order_count, total_amount, total_qty)
+SELECT merchant_id, DATE(paid_at), venue_id, IFNULL(operator_id, 0), IFNULL(pay_method, 'CASH'),
+       COUNT(*), SUM(total_amount), SUM(total_qty)
+FROM sales_orders
+WHERE status = 'PAID' AND paid_at IS NOT NULL
+GROUP BY merchant_id, DATE(paid_at), venue_id, IFNULL(operator_id, 0), IFNULL(pay_method, 'CASH')
+ON DUPLICATE KEY UPDATE order_count = VALUES(order_count), total_amount = VALUES(total_amount),
+                        total_qty = VALUES(total_qty);
+
+INSERT INTO sales_daily_product_rollup (merchant_id, sale_date, venue_id, operator_id, product_id, product_name,
+                                        unit_price, unit, order_count, total_qty, total_amount)
+SELECT o.merchant_id, DATE(o.paid_at), o.venue_id, IFNULL(o.operator_id, 0), IFNULL(i.product_id, 0), i.product_name,
+       i.unit_price, MAX(i.unit), COUNT(DISTINCT o.id), SUM(i.quantity), SUM(i.subtotal)
+FROM sales_orders o
+JOIN sales_order_items i ON i.order_id = o.id
+WHERE o.status = 'PAID' AND o.paid_at IS NOT NULL
+GROUP BY o.merchant_id, DATE(o.paid_at), o.venue_id, IFNULL(o.operator_id, 0), IFNULL(i.product_id, 0),
+         i.product_name, i.unit_price
+ON DUPLICATE KEY UPDATE unit = VALUES(unit), order_count = VALUES(order_count), total_qty = VALUES(total_qty),
+                        total_amount = VALUES(total_amount);
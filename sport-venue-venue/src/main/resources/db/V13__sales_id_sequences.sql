@@ -0,0 +1,13 @@
+-- 销售单明细改为号段表取主键（JPA TableGenerator, pooled），以便 Hibernate 批量插入；销售单、支付流水仍用自增主键
+-- 起始值在现有最大 ID 之上留出余量，与 pooled 对号段上下界的解释无关，都不会与已有数据重复。
+-- 未执行本脚本而明细表已有数据时，服务启动会由 SalesIdSequenceCheck 拒绝
+USE sport_venue;
+
+CREATE TABLE IF NOT EXISTS sales_id_sequences (
+    seq_name    VARCHAR(64) NOT NULL PRIMARY KEY COMMENT '表名',
+    next_val    BIGINT      NOT NULL             COMMENT '号段高位'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='销售模块主键号段';
+
+INSERT INTO sales_id_sequences (seq_name, next_val)
+SELECT 'sales_order_items', IFNULL(MAX(id), 0) + 1000 FROM sales_order_items
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
@@ -0,0 +1,25 @@
+-- 订场并发准入：片场半小时段占位，(court_id, slot_start) 唯一
+USE sport_venue;
+
+CREATE TABLE IF NOT EXISTS booking_slot_claims (
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    court_id    BIGINT      NOT NULL,
+    slot_start  DATETIME    NOT NULL                COMMENT '半小时段起点',
+    order_no    VARCHAR(32) NOT NULL                COMMENT '占位订场单号',
+    create_time DATETIME    DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_bsc_court_slot (court_id, slot_start),
+    INDEX idx_bsc_order_no (order_no)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='片场时段占位';
+
+-- 回填存量占用中的订场单（BOOKED/COMPLETED）
+INSERT IGNORE INTO booking_slot_claims (court_id, slot_start, order_no)
+WITH RECURSIVE slots (court_id, slot_start, end_time, order_no) AS (
+    SELECT court_id,
+           DATE_SUB(start_time, INTERVAL MOD(MINUTE(start_time), 30) * 60 + SECOND(start_time) SECOND),
+           end_time, order_no
+    FROM bookings WHERE status IN ('BOOKED', 'COMPLETED')
+    UNION ALL
+    SELECT court_id, DATE_ADD(slot_start, INTERVAL 30 MINUTE), end_time, order_no
+    FROM slots WHERE DATE_ADD(slot_start, INTERVAL 30 MINUTE) < end_time
+)
+SELECT court_id, slot_start, order_no FROM slots;
@@ -0,0 +1,4 @@
+-- 订场过期任务：按 (status, end_time) 范围扫描候选，避免全表筛 BOOKED
+USE sport_venue;
+
+ALTER TABLE bookings ADD INDEX idx_status_end (status, end_time);
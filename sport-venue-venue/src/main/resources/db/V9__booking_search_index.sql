@@ -0,0 +1,4 @@
+-- 订场列表键集分页：按商户过滤后直接沿 (start_time, id) 倒序取下一页
+USE sport_venue;
+
+ALTER TABLE bookings ADD INDEX idx_merchant_start (merchant_id, start_time, id);
@@ -0,0 +1,155 @@
+package com.sportvenue.venue.service;
+
+import com.sportvenue.venue.entity.Booking;
+import com.sportvenue.venue.repository.BookingBatchWriter;
+import com.sportvenue.venue.repository.BookingRepository;
+import com.sportvenue.venue.repository.BookingSlotClaimRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 两个“实例”（各自一份内存位图）共享同一张占位表，并发抢同一片场的重叠时段，只能有一单成功
+ */
+class BookingSlotClaimServiceTest {
+
+    private static final long COURT_ID = 1L;
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withHour(18).withMinute(0)
+            .withSecond(0).withNano(0);
+
+    /** 模拟 (court_id, slot_start) 唯一键：key 为 courtId:slotStart，value 为单号 */
+    private final Map<String, String> claims = new ConcurrentHashMap<>();
+
+    private BookingSlotClaimRepository claimRepository;
+
+    @BeforeEach
+    void setUp() {
+        claimRepository = mock(BookingSlotClaimRepository.class);
+        when(claimRepository.claim(anyLong(), any(), anyString())).thenAnswer(inv ->
+                claims.putIfAbsent(inv.getArgument(0) + ":" + inv.getArgument(1), inv.getArgument(2)) == null ? 1 : 0);
+        when(claimRepository.deleteByOrderNo(anyString())).thenAnswer(inv -> {
+            String orderNo = inv.getArgument(0);
+            int before = claims.size();
+            claims.values().removeIf(orderNo::equals);
+            return before - claims.size();
+        });
+    }
+
+    @Test
+    void concurrentOverlappingBookingsOnlyOneWins() throws Exception {
+        List<BookingSlotClaimService> instances = List.of(instance(), instance());
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger wins = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            BookingSlotClaimService service = instances.get(i % instances.size());
+            // 各单时段两两重叠：18:00 起，时长 1~2.5 小时不等
+            Booking booking = booking("B" + i, START, START.plusMinutes(60 + 30L * (i % 4)));
+            futures.add(pool.submit(() -> {
+                ready.countDown();
+                go.await();
+                if (service.claim(booking)) {
+                    wins.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        ready.await();
+        go.countDown();
+        for (Future<?> f : futures) {
+            f.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(wins.get()).isEqualTo(1);
+        assertThat(claims.values().stream().distinct().count()).isEqualTo(1);
+    }
+
+    @Test
+    void adjacentBookingsBothSucceed() {
+        BookingSlotClaimService service = instance();
+        assertThat(service.claim(booking("A", START, START.plusHours(1)))).isTrue();
+        assertThat(service.claim(booking("B", START.plusHours(1), START.plusHours(2)))).isTrue();
+        assertThat(claims).hasSize(4);
+    }
+
+    @Test
+    void recurringSeriesOnSeededDaysSkipsPerDayQueries() {
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        CourtOccupancyIndex index = index(bookingRepository);
+        BookingSlotClaimService service = service(index);
+        BookingBatchWriter batchWriter = mock(BookingBatchWriter.class);
+        ReflectionTestUtils.setField(service, "batchWriter", batchWriter);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+
+        // 20 周的周期订场，第 3 周当天已有一单冲突
+        List<Booking> bookings = new ArrayList<>();
+        Set<LocalDate> days = new HashSet<>();
+        for (int w = 0; w < 20; w++) {
+            LocalDateTime start = START.plusWeeks(w);
+            bookings.add(booking("R" + w, start, start.plusHours(2)));
+            days.add(start.toLocalDate());
+        }
+        Booking existing = booking("X", START.plusWeeks(2).plusHours(1), START.plusWeeks(2).plusHours(3));
+        index.seedDays(COURT_ID, days, List.of(existing));
+        when(batchWriter.countClaims(any())).thenAnswer(inv -> {
+            List<Object[]> counts = new ArrayList<>();
+            for (Object orderNo : (Iterable<?>) inv.getArgument(0)) {
+                counts.add(new Object[]{orderNo, 4L});
+            }
+            return counts;
+        });
+
+        assertThat(service.claimAll(bookings)).containsExactly("R2");
+        verify(bookingRepository, never()).findDayOccupancy(any(), any(), any(), any());
+    }
+
+    private BookingSlotClaimService instance() {
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findDayOccupancy(any(), any(), any(), any())).thenReturn(List.of());
+        return service(index(bookingRepository));
+    }
+
+    private static CourtOccupancyIndex index(BookingRepository bookingRepository) {
+        CourtOccupancyIndex index = new CourtOccupancyIndex();
+        ReflectionTestUtils.setField(index, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(index, "ttlMs", 60_000L);
+        return index;
+    }
+
+    private BookingSlotClaimService service(CourtOccupancyIndex index) {
+        BookingSlotClaimService service = new BookingSlotClaimService();
+        ReflectionTestUtils.setField(service, "claimRepository", claimRepository);
+        ReflectionTestUtils.setField(service, "occupancyIndex", index);
+        return service;
+    }
+
+    private static Booking booking(String orderNo, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setOrderNo(orderNo);
+        booking.setCourtId(COURT_ID);
+        booking.setStartTime(start);
+        booking.setEndTime(end);
+        return booking;
+    }
+}
@@ -0,0 +1,164 @@
+package com.sportvenue.venue.service.impl;
+
+import com.sportvenue.common.model.ApiResponse;
+import com.sportvenue.venue.dto.booking.BookingCursorPageDTO;
+import com.sportvenue.venue.dto.booking.BookingDTO;
+import com.sportvenue.venue.entity.Booking;
+import com.sportvenue.venue.entity.Court;
+import com.sportvenue.venue.entity.User;
+import com.sportvenue.venue.repository.BookingRepository;
+import com.sportvenue.venue.repository.CourtRepository;
+import com.sportvenue.venue.repository.MatchResultRepository;
+import com.sportvenue.venue.repository.VenueRepository;
+import com.sportvenue.venue.service.MerchantNameCache;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 按 Hibernate Statistics 统计 SQL 条数：订场列表两种分页的语句数都不随页大小增长，
+ * 片场/场馆名称和赛果按页批量取，不会退化成逐行查询
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.bootstrap.enabled=false",
+        "spring.cloud.config.enabled=false",
+        "spring.test.database.replace=none",
+        "spring.datasource.url=jdbc:h2:mem:bookings;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BookingServiceImplTest {
+
+    private static final long MERCHANT_ID = 1L;
+    private static final long VENUE_ID = 10L;
+    private static final int BOOKINGS = 20;
+
+    @SpringBootConfiguration
+    @EntityScan("com.sportvenue.venue.entity")
+    @EnableJpaRepositories("com.sportvenue.venue.repository")
+    @EnableJpaAuditing
+    static class Config {
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CourtRepository courtRepository;
+    @Autowired
+    private VenueRepository venueRepository;
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    private BookingServiceImpl bookingService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        MerchantNameCache nameCache = new MerchantNameCache();
+        ReflectionTestUtils.setField(nameCache, "courtRepository", courtRepository);
+        ReflectionTestUtils.setField(nameCache, "venueRepository", venueRepository);
+        ReflectionTestUtils.setField(nameCache, "ttlMs", -1L);
+
+        bookingService = new BookingServiceImpl();
+        ReflectionTestUtils.setField(bookingService, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(bookingService, "matchResultRepository", matchResultRepository);
+        ReflectionTestUtils.setField(bookingService, "nameCache", nameCache);
+
+        User user = new User();
+        user.setId(100L);
+        user.setUsername("owner");
+        user.setMerchantId(MERCHANT_ID);
+        user.setUserType(User.UserType.B_MERCHANT);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+
+        Court court = new Court();
+        court.setMerchantId(MERCHANT_ID);
+        court.setVenueId(VENUE_ID);
+        court.setName("1号场");
+        court = courtRepository.save(court);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Booking booking = new Booking();
+            booking.setOrderNo("BK" + i);
+            booking.setMerchantId(MERCHANT_ID);
+            booking.setVenueId(VENUE_ID);
+            booking.setCourtId(court.getId());
+            booking.setStartTime(start.plusMinutes(30L * i));
+            booking.setEndTime(start.plusMinutes(30L * i + 30));
+            booking.setBookType(Booking.BookType.PERSON);
+            booking.setPersonName("散客" + i);
+            booking.setOperatorId(100L);
+            booking.setAmount(BigDecimal.TEN);
+            bookingRepository.save(booking);
+        }
+        entityManager.flush();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void listStatementCountIndependentOfPageSize() {
+        long small = statementsFor(() -> list(2));
+        long full = statementsFor(() -> list(BOOKINGS));
+
+        assertThat(full).isEqualTo(small);
+    }
+
+    @Test
+    void listByCursorStatementCountIndependentOfPageSize() {
+        long small = statementsFor(() -> listByCursor(2));
+        long full = statementsFor(() -> listByCursor(BOOKINGS));
+
+        assertThat(full).isEqualTo(small);
+    }
+
+    private List<BookingDTO> list(int size) {
+        ApiResponse<Page<BookingDTO>> response = bookingService.list(null, null, null, null, null, 0, size);
+        assertThat(response.getData()).as(response.getMessage()).isNotNull();
+        return response.getData().getContent();
+    }
+
+    private List<BookingDTO> listByCursor(int size) {
+        ApiResponse<BookingCursorPageDTO> response =
+                bookingService.listByCursor(null, null, null, null, null, null, size);
+        assertThat(response.getData()).as(response.getMessage()).isNotNull();
+        return response.getData().getItems();
+    }
+
+    /** 名称缓存 TTL 为负，每次都重新加载，计入的是冷缓存下的完整语句数 */
+    private long statementsFor(Supplier<List<BookingDTO>> action) {
+        entityManager.clear();
+        statistics.clear();
+        List<BookingDTO> page = action.get();
+        long count = statistics.getPrepareStatementCount();
+        assertThat(page).isNotEmpty().allSatisfy(b -> assertThat(b.getCourtName()).isEqualTo("1号场"));
+        return count;
+    }
+}
@@ -0,0 +1,203 @@
+package com.sportvenue.venue.service.impl;
+
+import com.sportvenue.common.model.ApiResponse;
+import com.sportvenue.common.sequence.OrderNoGenerator;
+import com.sportvenue.venue.dto.sales.SalesOrderDTO;
+import com.sportvenue.venue.dto.sales.SalesPreviewRequest;
+import com.sportvenue.venue.entity.Product;
+import com.sportvenue.venue.entity.SalesOrder;
+import com.sportvenue.venue.entity.User;
+import com.sportvenue.venue.entity.Venue;
+import com.sportvenue.venue.repository.SalesDailyRollup;
+import com.sportvenue.venue.repository.SalesOrderItemRepository;
+import com.sportvenue.venue.repository.SalesOrderRepository;
+import com.sportvenue.venue.repository.SalesPaymentRepository;
+import com.sportvenue.venue.service.CashierCatalog;
+import com.sportvenue.venue.service.PlatformCommissionService;
+import com.sportvenue.venue.service.VenueCache;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 按 Hibernate Statistics 统计 SQL 条数：建单的语句数不随明细行数增长（明细合并为一次 batch），
+ * 订单列表的语句数不随订单数增长（一页明细一次查询）
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.bootstrap.enabled=false",
+        "spring.cloud.config.enabled=false",
+        "spring.test.database.replace=none",
+        "spring.datasource.url=jdbc:h2:mem:sales;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+class SalesServiceImplTest {
+
+    private static final long MERCHANT_ID = 1L;
+    private static final long VENUE_ID = 10L;
+
+    @SpringBootConfiguration
+    @EntityScan("com.sportvenue.venue.entity")
+    @EnableJpaRepositories("com.sportvenue.venue.repository")
+    @EnableJpaAuditing
+    static class Config {
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private SalesOrderRepository salesOrderRepository;
+    @Autowired
+    private SalesOrderItemRepository salesOrderItemRepository;
+    @Autowired
+    private SalesPaymentRepository salesPaymentRepository;
+
+    private SalesServiceImpl salesService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Venue venue = new Venue();
+        venue.setId(VENUE_ID);
+        venue.setMerchantId(MERCHANT_ID);
+        venue.setName("测试场馆");
+        venue.setStatus(Venue.VenueStatus.ACTIVE);
+        VenueCache venueCache = mock(VenueCache.class);
+        when(venueCache.require(VENUE_ID)).thenReturn(venue);
+        when(venueCache.byMerchant(MERCHANT_ID)).thenReturn(List.of(venue));
+
+        Map<Long, CashierCatalog.Item> products = new HashMap<>();
+        for (long id = 1; id <= 50; id++) {
+            products.put(id, new CashierCatalog.Item(id, VENUE_ID, "商品" + id, "个", BigDecimal.valueOf(id),
+                    Product.ProductStatus.ON_SALE));
+        }
+        CashierCatalog cashierCatalog = mock(CashierCatalog.class);
+        when(cashierCatalog.get(MERCHANT_ID)).thenReturn(new CashierCatalog.Snapshot(1, products, 0));
+
+        AtomicLong seq = new AtomicLong();
+        OrderNoGenerator orderNoGenerator = mock(OrderNoGenerator.class);
+        when(orderNoGenerator.next(anyString(), anyInt())).thenAnswer(inv -> "SO" + seq.incrementAndGet());
+
+        salesService = new SalesServiceImpl();
+        ReflectionTestUtils.setField(salesService, "salesOrderRepository", salesOrderRepository);
+        ReflectionTestUtils.setField(salesService, "salesOrderItemRepository", salesOrderItemRepository);
+        ReflectionTestUtils.setField(salesService, "salesPaymentRepository", salesPaymentRepository);
+        ReflectionTestUtils.setField(salesService, "salesDailyRollup", mock(SalesDailyRollup.class));
+        ReflectionTestUtils.setField(salesService, "venueCache", venueCache);
+        ReflectionTestUtils.setField(salesService, "cashierCatalog", cashierCatalog);
+        ReflectionTestUtils.setField(salesService, "platformCommissionService", mock(PlatformCommissionService.class));
+        ReflectionTestUtils.setField(salesService, "orderNoGenerator", orderNoGenerator);
+
+        User user = new User();
+        user.setId(100L);
+        user.setUsername("owner");
+        user.setMerchantId(MERCHANT_ID);
+        user.setUserType(User.UserType.B_MERCHANT);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void createOrderStatementCountIndependentOfItemCount() {
+        // 预热：首单租用明细主键号段，之后的单都在号段内发号
+        createOrder(1);
+
+        long single = statementsFor(() -> createOrder(1));
+        long many = statementsFor(() -> createOrder(30));
+
+        assertThat(many).isEqualTo(single);
+        assertThat(salesOrderItemRepository.count()).isEqualTo(32);
+    }
+
+    @Test
+    void listOrdersStatementCountIndependentOfOrderCount() {
+        paidOrders(2);
+        long few = statementsFor(() -> listOrders(2));
+
+        paidOrders(10);
+        long many = statementsFor(() -> listOrders(12));
+
+        assertThat(many).isEqualTo(few);
+    }
+
+    private void listOrders(int expected) {
+        ApiResponse<Page<SalesOrderDTO>> response = salesService.listOrders(null, null, null, null, false, 0, 20);
+        assertThat(response.getData()).as(response.getMessage()).isNotNull();
+        assertThat(response.getData().getContent()).hasSize(expected)
+                .allSatisfy(o -> assertThat(o.getItems()).hasSize(3));
+    }
+
+    private void paidOrders(int count) {
+        for (int i = 0; i < count; i++) {
+            createOrder(3);
+        }
+        for (SalesOrder order : salesOrderRepository.findAll()) {
+            order.setStatus(SalesOrder.OrderStatus.PAID);
+            order.setPayMethod(SalesOrder.PayMethod.CASH);
+            order.setPaidAt(LocalDateTime.now());
+        }
+        entityManager.flush();
+    }
+
+    private void createOrder(int itemCount) {
+        ApiResponse<SalesOrderDTO> response = salesService.createOrder(request(itemCount));
+        assertThat(response.getData()).as(response.getMessage()).isNotNull();
+        entityManager.flush();
+    }
+
+    private long statementsFor(Runnable action) {
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static SalesPreviewRequest request(int itemCount) {
+        List<SalesPreviewRequest.Item> items = new ArrayList<>();
+        for (long id = 1; id <= itemCount; id++) {
+            SalesPreviewRequest.Item item = new SalesPreviewRequest.Item();
+            item.setProductId(id);
+            item.setQuantity(2);
+            items.add(item);
+        }
+        SalesPreviewRequest request = new SalesPreviewRequest();
+        request.setVenueId(VENUE_ID);
+        request.setItems(items);
+        return request;
+    }
+}
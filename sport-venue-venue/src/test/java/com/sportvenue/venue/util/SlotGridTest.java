@@ -0,0 +1,103 @@
+package com.sportvenue.venue.util;
+
+import com.sportvenue.venue.entity.Booking;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 时段网格：一次扫描的结果与逐段过滤一致，且访问订场单时间的次数只与单数成正比、与 48 个时段无关
+ */
+class SlotGridTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 1);
+
+    @Test
+    void ownersMatchPerSlotFilter() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<Booking> bookings = randomBookings(random, 1 + random.nextInt(30));
+            Booking[] owners = SlotGrid.owners(DAY, bookings);
+            for (int i = 0; i < SlotGrid.SLOTS_PER_DAY; i++) {
+                assertThat(owners[i]).as("round %d slot %d", round, i).isSameAs(naiveOwner(bookings, i));
+            }
+        }
+    }
+
+    @Test
+    void ownersReadEachBookingOnce() {
+        List<CountingBooking> bookings = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            LocalDateTime start = DAY.atTime(6, 0).plusMinutes(15L * i);
+            bookings.add(new CountingBooking(start, start.plusMinutes(90)));
+        }
+        SlotGrid.owners(DAY, new ArrayList<>(bookings));
+
+        // 逐段过滤需要 48 × 单数次读取；一次扫描每单只读固定几次
+        int reads = bookings.stream().mapToInt(b -> b.reads).sum();
+        assertThat(reads).isLessThanOrEqualTo(4 * bookings.size());
+    }
+
+    @Test
+    void timeStringsAndMasks() {
+        assertThat(SlotGrid.startTime("2024-06-01", 0)).isEqualTo("2024-06-01 00:00:00");
+        assertThat(SlotGrid.startTime("2024-06-01", 37)).isEqualTo("2024-06-01 18:30:00");
+        assertThat(SlotGrid.endTime("2024-06-01", "2024-06-02", 47)).isEqualTo("2024-06-02 00:00:00");
+        // 18:10 ~ 19:20 占 18:00、18:30、19:00 三段
+        assertThat(SlotGrid.mask(DAY, DAY.atTime(18, 10), DAY.atTime(19, 20))).isEqualTo(0b111L << 36);
+        // 跨天订场在后一天只占零点到结束的部分
+        assertThat(SlotGrid.mask(DAY.plusDays(1), DAY.atTime(23, 0), DAY.plusDays(1).atTime(1, 0))).isEqualTo(0b11L);
+        assertThat(SlotGrid.mask(DAY, DAY.atTime(8, 0), DAY.atTime(8, 0))).isZero();
+    }
+
+    private static Booking naiveOwner(List<Booking> sorted, int slot) {
+        LocalDateTime slotStart = DAY.atStartOfDay().plusMinutes((long) slot * SlotGrid.SLOT_MINUTES);
+        LocalDateTime slotEnd = slotStart.plusMinutes(SlotGrid.SLOT_MINUTES);
+        return sorted.stream()
+                .filter(b -> b.getStartTime().isBefore(slotEnd) && b.getEndTime().isAfter(slotStart))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static List<Booking> randomBookings(Random random, int count) {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = DAY.atStartOfDay().minusHours(2).plusMinutes(5L * random.nextInt(26 * 12));
+            Booking b = new Booking();
+            b.setStartTime(start);
+            b.setEndTime(start.plusMinutes(5L + 5L * random.nextInt(48)));
+            bookings.add(b);
+        }
+        bookings.sort(Comparator.comparing(Booking::getStartTime));
+        return bookings;
+    }
+
+    /** 统计开始/结束时间的读取次数 */
+    private static final class CountingBooking extends Booking {
+        private int reads;
+
+        private CountingBooking(LocalDateTime start, LocalDateTime end) {
+            setStartTime(start);
+            setEndTime(end);
+        }
+
+        @Override
+        public LocalDateTime getStartTime() {
+            reads++;
+            return super.getStartTime();
+        }
+
+        @Override
+        public LocalDateTime getEndTime() {
+            reads++;
+            return super.getEndTime();
+        }
+    }
+}